@@ -1,9 +1,12 @@
 package com.arjinmc.bottomnavigationviewdemo;
 
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
+import android.view.ViewTreeObserver;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
+import android.widget.TextView;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
@@ -11,21 +14,36 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.arjinmc.bottomnavigationview.BottomNavigationView;
 import com.arjinmc.bottomnavigationview.NavigationItemView;
 
+import java.util.List;
+
 /**
  * Created by Eminem Lo on 2019-12-10.
  * email: arjinmc@hotmail.com
  */
 public class BottomNavigationViewActivity extends AppCompatActivity {
 
+    /**
+     * build items on background thread by BottomNavigationView.prepareItems()
+     */
+    public static final String EXTRA_ASYNC_ITEMS = "async_items";
+
+    private static final int ITEM_COUNT = NavigationMenus.BOTTOM_NAVIGATION_ITEM_COUNT;
+
     private RadioGroup mRgItemGravity;
     private BottomNavigationView mBottomNavigationView;
+    private TextView mTvFirstFrame;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
+        long createTime = SystemClock.uptimeMillis();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.act_bottom_navigation_view);
 
-        initBottomNavigation();
+        boolean asyncItems = getIntent().getBooleanExtra(EXTRA_ASYNC_ITEMS, false);
+        mTvFirstFrame = findViewById(R.id.tv_first_frame);
+        measureFirstFrame(createTime, asyncItems);
+
+        initBottomNavigation(asyncItems);
 
         mRgItemGravity = findViewById(R.id.rg_item_layout_gravity);
         if (mBottomNavigationView.getCurrentItemGravity() == BottomNavigationView.ITEM_GRAVITY_MODE_CENTER) {
@@ -51,34 +69,58 @@ public class BottomNavigationViewActivity extends AppCompatActivity {
 
     }
 
-    private void initBottomNavigation() {
+    /**
+     * log the time from onCreate() to the first frame drawn with all items, so sync and async modes are comparable,
+     * in async mode the frames before the items are added don't count
+     *
+     * @param createTime
+     * @param asyncItems
+     */
+    private void measureFirstFrame(final long createTime, final boolean asyncItems) {
+        getWindow().getDecorView().getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (mBottomNavigationView.getItemCount() < ITEM_COUNT) {
+                    return true;
+                }
+                getWindow().getDecorView().getViewTreeObserver().removeOnPreDrawListener(this);
+                long firstFrameTime = SystemClock.uptimeMillis() - createTime;
+                String result = getString(asyncItems ? R.string.first_frame_async : R.string.first_frame_sync
+                        , firstFrameTime);
+                Log.i("firstFrame", result);
+                mTvFirstFrame.setText(result);
+                return true;
+            }
+        });
+    }
+
+    private void initBottomNavigation(boolean asyncItems) {
         mBottomNavigationView = findViewById(R.id.bottom_navigation_view);
 
-        NavigationItemView naviItem1 = mBottomNavigationView.newItem();
-        naviItem1.setText(getString(R.string.tab_1));
-        naviItem1.setId(R.id.tab_1);
-        naviItem1.setIconDrawable(R.drawable.ic_home);
-        naviItem1.setNumber(2);
-        mBottomNavigationView.addItem(naviItem1);
-
-        NavigationItemView naviItem2 = mBottomNavigationView.newItem();
-        naviItem2.setText(getString(R.string.tab_2));
-        naviItem2.setId(R.id.tab_2);
-        naviItem2.setIconDrawable(R.drawable.ic_chart);
-        naviItem2.setNumberBackgroundSize(20, 20);
-        naviItem2.setNumberMargin(40, 6);
-        naviItem2.setShowDot(true);
-        mBottomNavigationView.addItem(naviItem2);
-
-        NavigationItemView naviItem3 = mBottomNavigationView.newItem();
-        naviItem3.setText(getString(R.string.tab_3));
-        naviItem3.setId(R.id.tab_3);
-        naviItem3.setIconDrawable(R.drawable.ic_library);
-        naviItem3.setNumberBackgroundSize(20, 30);
-        naviItem3.setNumber(100);
-        mBottomNavigationView.addItem(naviItem3);
-
-        naviItem3.setChecked();
+        if (asyncItems) {
+            mBottomNavigationView.prepareItems(ITEM_COUNT, new BottomNavigationView.OnItemsPreparedListener() {
+                @Override
+                public void onPrepareItem(NavigationItemView navigationItemView, int position) {
+                    setupItem(navigationItemView, position);
+                }
+
+                @Override
+                public void onItemsPrepared(List<NavigationItemView> navigationItemViews) {
+                    for (NavigationItemView navigationItemView : navigationItemViews) {
+                        mBottomNavigationView.addItem(navigationItemView);
+                    }
+                    navigationItemViews.get(ITEM_COUNT - 1).setChecked();
+                }
+            });
+        } else {
+            NavigationItemView lastItem = null;
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                lastItem = mBottomNavigationView.newItem();
+                setupItem(lastItem, i);
+                mBottomNavigationView.addItem(lastItem);
+            }
+            lastItem.setChecked();
+        }
 
         mBottomNavigationView.setOnNavigationItemSelectedListener(new BottomNavigationView.OnNavigationItemSelectedListener() {
             @Override
@@ -116,4 +158,25 @@ public class BottomNavigationViewActivity extends AppCompatActivity {
             }
         });
     }
+
+    /**
+     * set up item declared in res/menu/bottom_navigation.xml, then the properties menu doesn't support
+     *
+     * @param naviItem
+     * @param position
+     */
+    private void setupItem(NavigationItemView naviItem, int position) {
+        NavigationMenus.setupBottomNavigationItem(naviItem, position);
+        switch (position) {
+            case 1:
+                naviItem.setNumberBackgroundSize(20, 20);
+                naviItem.setNumberMargin(40, 6);
+                break;
+            case 2:
+                naviItem.setNumberBackgroundSize(20, 30);
+                break;
+            default:
+                break;
+        }
+    }
 }
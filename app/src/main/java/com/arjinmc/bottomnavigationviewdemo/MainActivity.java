@@ -19,7 +19,8 @@ import java.util.Arrays;
 
 public class MainActivity extends AppCompatActivity {
 
-    private Integer[] mList = new Integer[]{R.string.main_list_bottom_navigation_view};
+    private Integer[] mList = new Integer[]{R.string.main_list_bottom_navigation_view
+            , R.string.main_list_bottom_navigation_view_async_items};
 
     private RecyclerView mRvData;
     private RecyclerViewAdapter mDataAdapter;
@@ -47,6 +48,11 @@ public class MainActivity extends AppCompatActivity {
                             case R.string.main_list_bottom_navigation_view:
                                 openActivity(BottomNavigationViewActivity.class);
                                 break;
+                            case R.string.main_list_bottom_navigation_view_async_items:
+                                Intent intent = new Intent(MainActivity.this, BottomNavigationViewActivity.class);
+                                intent.putExtra(BottomNavigationViewActivity.EXTRA_ASYNC_ITEMS, true);
+                                startActivity(intent);
+                                break;
                             default:
                                 break;
                         }
@@ -0,0 +1,115 @@
+package com.arjinmc.bottomnavigationview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of NavigationState: selection dispatch, badge updates, item add/remove and diffs of setItems().
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NavigationStateBenchmark {
+
+    @Param({"3", "5", "20", "200"})
+    public int itemCount;
+
+    private Blackhole mBlackhole;
+    private NavigationState mNavigationState;
+    private int[] mItemIds;
+    /**
+     * the items of mItemIds with the first one removed, the middle two swapped and a new one inserted
+     */
+    private int[] mChangedItemIds;
+    private int mCounter;
+
+    private final NavigationState.Callback mCallback = new NavigationState.Callback() {
+        @Override
+        public void onItemReleaseSelected(int itemId) {
+            mBlackhole.consume(itemId);
+        }
+
+        @Override
+        public void onItemCheckedChanged(int position, boolean checked) {
+            mBlackhole.consume(position);
+        }
+
+        @Override
+        public void onItemSelected(int itemId) {
+            mBlackhole.consume(itemId);
+        }
+    };
+
+    private final NavigationState.DiffCallback mDiffCallback = new NavigationState.DiffCallback() {
+        @Override
+        public void onItemRemoved(int position) {
+            mBlackhole.consume(position);
+        }
+
+        @Override
+        public void onItemInserted(int position, int itemId) {
+            mBlackhole.consume(itemId);
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition) {
+            mBlackhole.consume(toPosition);
+        }
+    };
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        mBlackhole = blackhole;
+        mNavigationState = new NavigationState(mCallback);
+        mItemIds = new int[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            mItemIds[i] = 1000 + i * 7;
+            mNavigationState.addItem(mItemIds[i], NavigationState.BADGE_NONE);
+        }
+
+        mChangedItemIds = new int[itemCount];
+        System.arraycopy(mItemIds, 1, mChangedItemIds, 0, itemCount - 1);
+        mChangedItemIds[itemCount - 1] = -1;
+        int middle = (itemCount - 1) / 2;
+        int itemId = mChangedItemIds[middle];
+        mChangedItemIds[middle] = mChangedItemIds[middle + 1];
+        mChangedItemIds[middle + 1] = itemId;
+    }
+
+    @Benchmark
+    public boolean selectItem() {
+        return mNavigationState.select(mItemIds[mCounter++ % itemCount]);
+    }
+
+    @Benchmark
+    public String updateBadge() {
+        int position = mCounter++ % itemCount;
+        int number = 1 + mCounter % 1200;
+        mNavigationState.setBadge(position, number);
+        return BadgeTextCache.format(number, 999, true);
+    }
+
+    @Benchmark
+    public int addAndRemoveItem() {
+        //remove the first item and add it back to the end, so the ids stay the same between invocations
+        int itemId = mNavigationState.getItemId(0);
+        mNavigationState.removeItemAt(0);
+        return mNavigationState.addItem(itemId, NavigationState.BADGE_NONE);
+    }
+
+    @Benchmark
+    public boolean diffItems() {
+        //switch between the two lists, so every invocation has removes, inserts and moves
+        return mNavigationState.setItemIds((mCounter++ & 1) == 0 ? mChangedItemIds : mItemIds
+                , itemCount, mDiffCallback);
+    }
+}
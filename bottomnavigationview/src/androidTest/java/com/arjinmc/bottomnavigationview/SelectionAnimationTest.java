@@ -0,0 +1,165 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.app.Instrumentation;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Selection animation only changes render properties, there is no measure or layout until it ends.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SelectionAnimationTest {
+
+    private static final int ITEM_COUNT = 3;
+    private static final int FIRST_ITEM_ID = 1;
+    private static final int LAST_ITEM_ID = ITEM_COUNT;
+    /**
+     * icon and title of the checked and the unchecked item, and the indicator
+     */
+    private static final int ANIMATION_COUNT = 5;
+    private static final long ANIMATION_TIMEOUT_SECONDS = 5;
+
+    private BottomNavigationView mBottomNavigationView;
+
+    /**
+     * values read on main thread after the animation
+     */
+    private float mCheckedIconScale;
+    private float mUncheckedIconScale;
+    private float mUncheckedTitleAlpha;
+    private float mIndicatorLeft;
+    private float mCheckedItemLeft;
+
+    @Test
+    public void selectionAnimationRequestsNoLayout() throws InterruptedException {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        ActivityScenario<TestActivity> scenario = ActivityScenario.launch(TestActivity.class);
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestActivity>() {
+            @Override
+            public void perform(TestActivity activity) {
+                mBottomNavigationView = new BottomNavigationView(activity);
+                mBottomNavigationView.setSelectionAnimationEnabled(true);
+                mBottomNavigationView.setSelectionIndicator(new ColorDrawable(Color.RED));
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    NavigationItemView navigationItemView = mBottomNavigationView.newItem();
+                    navigationItemView.setId(FIRST_ITEM_ID + i);
+                    navigationItemView.setText("Item " + i);
+                    navigationItemView.setIconDrawable(new ColorDrawable(Color.GRAY));
+                    mBottomNavigationView.addItem(navigationItemView);
+                }
+                activity.setContentView(mBottomNavigationView, new ViewGroup.LayoutParams(
+                        ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            }
+        });
+        instrumentation.waitForIdleSync();
+
+        final LayoutCounter layoutCounter = new LayoutCounter();
+        final CountDownLatch animationEndLatch = new CountDownLatch(ANIMATION_COUNT);
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestActivity>() {
+            @Override
+            public void perform(TestActivity activity) {
+                mBottomNavigationView.setMetricsSink(layoutCounter);
+                mBottomNavigationView.getViewTreeObserver().addOnGlobalLayoutListener(layoutCounter);
+                mBottomNavigationView.dispatchItemSelected(LAST_ITEM_ID);
+
+                //the animations start on the next frame, so the end actions are added to them
+                Runnable endAction = new Runnable() {
+                    @Override
+                    public void run() {
+                        animationEndLatch.countDown();
+                    }
+                };
+                for (int itemId : new int[]{FIRST_ITEM_ID, LAST_ITEM_ID}) {
+                    View itemView = mBottomNavigationView.findViewById(itemId);
+                    itemView.findViewById(R.id.bottom_navigation_view_iv_icon).animate().withEndAction(endAction);
+                    itemView.findViewById(R.id.bottom_navigation_view_tv_title).animate().withEndAction(endAction);
+                }
+                //the indicator is the first child
+                mBottomNavigationView.getChildAt(0).animate().withEndAction(endAction);
+            }
+        });
+
+        //frames are drawn while waiting for the animations to end, they end at once if animations are disabled
+        assertTrue("selection animations should end"
+                , animationEndLatch.await(ANIMATION_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        instrumentation.waitForIdleSync();
+
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestActivity>() {
+            @Override
+            public void perform(TestActivity activity) {
+                mBottomNavigationView.getViewTreeObserver().removeOnGlobalLayoutListener(layoutCounter);
+                View checkedItemView = mBottomNavigationView.findViewById(LAST_ITEM_ID);
+                View uncheckedItemView = mBottomNavigationView.findViewById(FIRST_ITEM_ID);
+                mCheckedIconScale = checkedItemView.findViewById(R.id.bottom_navigation_view_iv_icon).getScaleX();
+                mUncheckedIconScale = uncheckedItemView.findViewById(R.id.bottom_navigation_view_iv_icon).getScaleX();
+                mUncheckedTitleAlpha = uncheckedItemView.findViewById(R.id.bottom_navigation_view_tv_title).getAlpha();
+                //the indicator is the first child
+                View indicatorView = mBottomNavigationView.getChildAt(0);
+                mIndicatorLeft = indicatorView.getLeft() + indicatorView.getTranslationX();
+                mCheckedItemLeft = checkedItemView.getLeft();
+            }
+        });
+        scenario.close();
+
+        assertEquals(0, layoutCounter.mLayoutRequestCount);
+        assertEquals(0, layoutCounter.mMeasureCount);
+        assertEquals(0, layoutCounter.mLayoutCount);
+        assertEquals(0, layoutCounter.mGlobalLayoutCount);
+
+        //the animation has reached the checked state
+        assertEquals(1f, mCheckedIconScale, 0.001f);
+        assertTrue(mUncheckedIconScale < 1f);
+        assertTrue(mUncheckedTitleAlpha < 1f);
+        assertEquals(mCheckedItemLeft, mIndicatorLeft, 0.5f);
+    }
+
+    private static class LayoutCounter implements NavigationMetricsSink, ViewTreeObserver.OnGlobalLayoutListener {
+
+        private volatile int mLayoutRequestCount;
+        private volatile int mMeasureCount;
+        private volatile int mLayoutCount;
+        private volatile int mGlobalLayoutCount;
+
+        @Override
+        public void onSection(int section, int itemId, long durationNanos) {
+            switch (section) {
+                case SECTION_MEASURE:
+                case SECTION_MEASURE_ITEM:
+                    mMeasureCount++;
+                    break;
+                case SECTION_LAYOUT:
+                case SECTION_LAYOUT_ITEM:
+                    mLayoutCount++;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void onLayoutRequested(int itemId) {
+            mLayoutRequestCount++;
+        }
+
+        @Override
+        public void onGlobalLayout() {
+            mGlobalLayoutCount++;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.app.Activity;
+
+/**
+ * Empty Activity to host views under test.
+ */
+public class TestActivity extends Activity {
+}
@@ -0,0 +1,83 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Icon of an item drawn from the cell of IconAtlas by checked state.
+ * Its intrinsic size is the fitted size of the icon in the atlas, so hosts fitting it keep the aspect ratio.
+ */
+class AtlasIconDrawable extends Drawable {
+
+    private final IconAtlas mIconAtlas;
+    private final int mPosition;
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mCellRect = new Rect();
+    private boolean isChecked;
+
+    AtlasIconDrawable(IconAtlas iconAtlas, int position) {
+        mIconAtlas = iconAtlas;
+        mPosition = position;
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        mIconAtlas.getCellRect(mPosition, isChecked, mCellRect);
+        canvas.drawBitmap(mIconAtlas.getBitmap(), mCellRect, getBounds(), mPaint);
+    }
+
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
+    @Override
+    protected boolean onStateChange(int[] state) {
+        boolean checked = false;
+        for (int stateItem : state) {
+            if (stateItem == android.R.attr.state_selected) {
+                checked = true;
+                break;
+            }
+        }
+        if (isChecked == checked) {
+            return false;
+        }
+        isChecked = checked;
+        return true;
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return mIconAtlas.getIconWidth(mPosition);
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return mIconAtlas.getIconHeight(mPosition);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        mPaint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
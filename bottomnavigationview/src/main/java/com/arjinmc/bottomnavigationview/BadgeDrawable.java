@@ -0,0 +1,217 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.content.res.ColorStateList;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Number badge of NavigationItemView drawn over the item instead of a laid out TextView,
+ * so showing, hiding or changing the number only needs to invalidate.
+ * It is placed at top center of the item with margin left/top like the old number TextView.
+ * Invalidations of the background are forwarded to the callback of badge whenever it is set.
+ */
+class BadgeDrawable extends Drawable implements Drawable.Callback {
+
+    private Drawable mBackground;
+    private TextPaint mTextPaint;
+    private ColorStateList mTextColor;
+    private Paint.FontMetricsInt mFontMetrics = new Paint.FontMetricsInt();
+
+    private String mText;
+    private boolean isShown;
+
+    /**
+     * the size of background without text
+     */
+    private int mMinWidth, mHeight;
+    private int mMarginLeft, mMarginTop;
+    /**
+     * cached width of current text
+     */
+    private int mWidth;
+
+    BadgeDrawable() {
+        mTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        mTextColor = ColorStateList.valueOf(0xFFFFFFFF);
+    }
+
+    void setBackground(Drawable background) {
+        if (mBackground != null) {
+            mBackground.setCallback(null);
+        }
+        mBackground = background;
+        if (mBackground != null) {
+            mBackground.setCallback(this);
+            mBackground.setState(getState());
+        }
+    }
+
+    @Override
+    public void invalidateDrawable(@NonNull Drawable who) {
+        invalidateSelf();
+    }
+
+    @Override
+    public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+        scheduleSelf(what, when);
+    }
+
+    @Override
+    public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+        unscheduleSelf(what);
+    }
+
+    void setTextColor(ColorStateList textColor) {
+        mTextColor = textColor;
+    }
+
+    void setTextSize(float textSize) {
+        mTextPaint.setTextSize(textSize);
+        updateWidth();
+    }
+
+    void setSize(int minWidth, int height) {
+        mMinWidth = minWidth;
+        mHeight = height;
+        updateWidth();
+    }
+
+    int getMinWidth() {
+        return mMinWidth;
+    }
+
+    int getHeight() {
+        return mHeight;
+    }
+
+    void setMargin(int marginLeft, int marginTop) {
+        mMarginLeft = marginLeft;
+        mMarginTop = marginTop;
+    }
+
+    /**
+     * set text, return false if nothing changed
+     *
+     * @param text
+     * @return
+     */
+    boolean setText(String text) {
+        if (TextUtils.equals(mText, text)) {
+            return false;
+        }
+        mText = text;
+        updateWidth();
+        return true;
+    }
+
+    String getText() {
+        return mText;
+    }
+
+    /**
+     * set shown, return false if nothing changed
+     *
+     * @param shown
+     * @return
+     */
+    boolean setShown(boolean shown) {
+        if (isShown == shown) {
+            return false;
+        }
+        isShown = shown;
+        return true;
+    }
+
+    boolean isShown() {
+        return isShown;
+    }
+
+    /**
+     * set bounds at top center of the area with the margins
+     *
+     * @param left
+     * @param top
+     * @param right
+     */
+    void layout(int left, int top, int right) {
+        int badgeLeft = left + (right - left - mWidth) / 2 + mMarginLeft;
+        int badgeTop = top + mMarginTop;
+        setBounds(badgeLeft, badgeTop, badgeLeft + mWidth, badgeTop + mHeight);
+    }
+
+    /**
+     * the width grows with text like the old number TextView did
+     */
+    private void updateWidth() {
+        mWidth = mMinWidth;
+        if (!TextUtils.isEmpty(mText)) {
+            int textWidth = (int) mTextPaint.measureText(mText);
+            if (textWidth > mMinWidth) {
+                int lineHeight = mTextPaint.getFontMetricsInt(null);
+                mWidth = textWidth + Math.abs(lineHeight - mHeight) * 2;
+            }
+        }
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (!isShown) {
+            return;
+        }
+        Rect bounds = getBounds();
+        if (mBackground != null) {
+            mBackground.setBounds(bounds);
+            mBackground.draw(canvas);
+        }
+        if (!TextUtils.isEmpty(mText)) {
+            mTextPaint.setColor(mTextColor.getColorForState(getState(), mTextColor.getDefaultColor()));
+            mTextPaint.getFontMetricsInt(mFontMetrics);
+            float textWidth = mTextPaint.measureText(mText);
+            float baseline = bounds.exactCenterY() - (mFontMetrics.ascent + mFontMetrics.descent) / 2f;
+            canvas.drawText(mText, bounds.exactCenterX() - textWidth / 2f, baseline, mTextPaint);
+        }
+    }
+
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
+    @Override
+    protected boolean onStateChange(int[] state) {
+        if (mBackground != null) {
+            mBackground.setState(state);
+        }
+        return true;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        mTextPaint.setAlpha(alpha);
+        if (mBackground != null) {
+            mBackground.setAlpha(alpha);
+        }
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mTextPaint.setColorFilter(colorFilter);
+        if (mBackground != null) {
+            mBackground.setColorFilter(colorFilter);
+        }
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,120 @@
+package com.arjinmc.bottomnavigationview;
+
+/**
+ * Cache of formatted badge number strings, so updating a number doesn't allocate strings.
+ * It has no dependency on Android framework, so it can be benchmarked on JVM with NavigationState.
+ */
+final class BadgeTextCache {
+
+    /**
+     * numbers below this are cached in an array
+     */
+    private static final int SMALL_NUMBER_COUNT = 1000;
+    /**
+     * slot count of large number, compact and "n+" caches, a key only replaces the key in the same slot
+     */
+    private static final int CACHE_SLOT_COUNT = 256;
+
+    private static final String[] sSmallNumbers = new String[SMALL_NUMBER_COUNT];
+    private static final int[] sLargeNumberKeys = new int[CACHE_SLOT_COUNT];
+    private static final String[] sLargeNumbers = new String[CACHE_SLOT_COUNT];
+    private static final int[] sMaxNumberKeys = new int[CACHE_SLOT_COUNT];
+    private static final String[] sMaxNumbers = new String[CACHE_SLOT_COUNT];
+    private static final int[] sCompactNumberKeys = new int[CACHE_SLOT_COUNT];
+    private static final String[] sCompactNumbers = new String[CACHE_SLOT_COUNT];
+
+    private BadgeTextCache() {
+    }
+
+    /**
+     * get the text of badge number.
+     * Numbers below 1000, compact numbers and "n+" texts are cached, so they allocate nothing once formatted.
+     * Other numbers >= 1000 allocate a string the first time they are shown, or again after another number
+     * took their cache slot, so keep such numbers capped by max number or compact where updates are frequent.
+     *
+     * @param number    should be > 0
+     * @param maxNumber above max number n will be shown as "n+", a max number < 1 is taken as 1
+     * @param compact   numbers >= 1000 will be shown as "1.2k", "12k" or "1.2m"
+     * @return
+     */
+    static synchronized String format(int number, int maxNumber, boolean compact) {
+        //the number is > 0, so "0+" or "-1+" would never be right
+        maxNumber = Math.max(1, maxNumber);
+        if (number > maxNumber) {
+            //compact and normal "n+" of the same max number are different texts
+            int key = compact ? ~maxNumber : maxNumber;
+            int slot = key & (CACHE_SLOT_COUNT - 1);
+            String text = sMaxNumbers[slot];
+            if (text == null || sMaxNumberKeys[slot] != key) {
+                text = formatNumber(maxNumber, compact) + "+";
+                sMaxNumberKeys[slot] = key;
+                sMaxNumbers[slot] = text;
+            }
+            return text;
+        }
+        return formatNumber(number, compact);
+    }
+
+    private static String formatNumber(int number, boolean compact) {
+        if (number >= 0 && number < SMALL_NUMBER_COUNT) {
+            String text = sSmallNumbers[number];
+            if (text == null) {
+                text = String.valueOf(number);
+                sSmallNumbers[number] = text;
+            }
+            return text;
+        }
+        if (!compact) {
+            int slot = number & (CACHE_SLOT_COUNT - 1);
+            String text = sLargeNumbers[slot];
+            if (text == null || sLargeNumberKeys[slot] != number) {
+                text = String.valueOf(number);
+                sLargeNumberKeys[slot] = number;
+                sLargeNumbers[slot] = text;
+            }
+            return text;
+        }
+
+        //the key is the shown value, so numbers shown as the same text share one string
+        int key;
+        if (number < 10000) {
+            key = number / 100;
+        } else if (number < 1000000) {
+            key = 100 + number / 1000;
+        } else {
+            key = 1100 + number / 100000;
+        }
+        int slot = key & (CACHE_SLOT_COUNT - 1);
+        String text = sCompactNumbers[slot];
+        if (text == null || sCompactNumberKeys[slot] != key) {
+            text = formatCompact(number);
+            sCompactNumberKeys[slot] = key;
+            sCompactNumbers[slot] = text;
+        }
+        return text;
+    }
+
+    /**
+     * format number >= 1000 as "1.2k", "12k" or "1.2m", the value is truncated
+     *
+     * @param number
+     * @return
+     */
+    private static String formatCompact(int number) {
+        if (number < 10000) {
+            return withOneDecimal(number / 100) + "k";
+        } else if (number < 1000000) {
+            return number / 1000 + "k";
+        } else if (number < 10000000) {
+            return withOneDecimal(number / 100000) + "m";
+        }
+        return number / 1000000 + "m";
+    }
+
+    private static String withOneDecimal(int tenths) {
+        if (tenths % 10 == 0) {
+            return String.valueOf(tenths / 10);
+        }
+        return tenths / 10 + "." + tenths % 10;
+    }
+}
@@ -1,19 +1,30 @@
 package com.arjinmc.bottomnavigationview;
 
 import android.content.Context;
-import android.content.res.ColorStateList;
-import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.View;
 import android.widget.LinearLayout;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
+import androidx.core.view.ViewCompat;
+import androidx.customview.view.AbsSavedState;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * BottomNavigationView for Common Style
@@ -31,6 +42,24 @@ public class BottomNavigationView extends LinearLayout {
      */
     public static final int ITEM_GRAVITY_MODE_BOTTOM = 1;
 
+    /**
+     * the badge value of postNumbers() to show the number as a dot
+     */
+    public static final int BADGE_DOT = NavigationState.BADGE_DOT;
+
+    /**
+     * listener is called inside dispatchItemSelected(), before the new checked state is drawn
+     */
+    public static final int DISPATCH_SYNCHRONOUS = 0;
+    /**
+     * listener is called on main thread after the next frame of the bar is drawn
+     */
+    public static final int DISPATCH_AFTER_FRAME = 1;
+    /**
+     * listener is called on the executor of addOnNavigationItemSelectedListener(listener, executor)
+     */
+    static final int DISPATCH_EXECUTOR = 2;
+
     /**
      * item layout gravity mode
      */
@@ -39,7 +68,14 @@ public class BottomNavigationView extends LinearLayout {
     }
 
     /**
-     * children list NavigationItemView
+     * dispatch policy of listeners on main thread
+     */
+    @IntDef(value = {DISPATCH_SYNCHRONOUS, DISPATCH_AFTER_FRAME})
+    public @interface DispatchPolicy {
+    }
+
+    /**
+     * children list NavigationItemView, in the same order with items of mNavigationState
      */
     private List<NavigationItemView> mNavigationItemViewList;
     /**
@@ -47,54 +83,245 @@ public class BottomNavigationView extends LinearLayout {
      */
     private int mItemGravityMode = ITEM_GRAVITY_MODE_CENTER;
 
+    private OnNavigationItemSelectedListener mOnNavigationItemSelectedListener;
     /**
-     * mark current checked item id
+     * listeners added with dispatch policies, copied on write so dispatching iterates without allocation
      */
-    private int mCurrentCheckedItemId;
+    private SelectedListenerEntry[] mSelectedListenerEntries = new SelectedListenerEntry[0];
+    private OnNavigationItemPressedListener mOnNavigationItemPressedListener;
+    private OnNavigationItemReselectedListener mOnNavigationItemReselectedListener;
+    private TabTransitionPredictor mTabTransitionPredictor;
 
-    private OnNavigationItemSelectedListener mOnNavigationItemSelectedListener;
+    /**
+     * render the changes of mNavigationState to item views
+     */
+    private final NavigationState.Callback mNavigationStateCallback = new NavigationState.Callback() {
+        @Override
+        public void onItemReleaseSelected(int itemId) {
+            if (mSelectionCoalescingWindow > 0) {
+                //the item selected before the burst is released once when the burst ends
+                if (!isCoalescedSelectionPending) {
+                    mCoalescedReleasedItemId = itemId;
+                }
+                return;
+            }
+            notifyItemReleaseSelected(itemId);
+        }
+
+        @Override
+        public void onItemCheckedChanged(int position, boolean checked) {
+            if (mScrollMode) {
+                mScrollingNavigationView.onItemCheckedChanged(position, checked);
+            } else {
+                mNavigationItemViewList.get(position).setCheckedState(checked);
+            }
+            if (checked) {
+                updateIndicator(isSelectionAnimationEnabled);
+            }
+        }
+
+        @Override
+        public void onItemSelected(int itemId) {
+            if (mSelectionCoalescingWindow > 0) {
+                mCoalescedSelectedItemId = itemId;
+                if (!isCoalescedSelectionPending) {
+                    isCoalescedSelectionPending = true;
+                    NavigationExecutors.main().postDelayed(mDispatchCoalescedSelectionRunnable
+                            , mSelectionCoalescingWindow);
+                }
+                return;
+            }
+            notifyItemSelected(itemId);
+        }
+    };
+
+    /**
+     * selections within the window after the first one of a burst only call the listener for the last one,
+     * 0 if disabled
+     */
+    private long mSelectionCoalescingWindow;
+    private boolean isCoalescedSelectionPending;
+    private int mCoalescedReleasedItemId;
+    private int mCoalescedSelectedItemId;
+
+    private final Runnable mDispatchCoalescedSelectionRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatchCoalescedSelection();
+        }
+    };
+
+    /**
+     * item ids, checked item and badges
+     */
+    private final NavigationState mNavigationState = new NavigationState(mNavigationStateCallback);
+
+    /**
+     * apply the changes of setItems() to item views, children are changed without layout until all are done
+     */
+    private final NavigationState.DiffCallback mItemDiffCallback = new NavigationState.DiffCallback() {
+        @Override
+        public void onItemRemoved(int position) {
+            NavigationItemView navigationItemView = mNavigationItemViewList.remove(position);
+            if (!mFlatMode) {
+                removeViewInLayout(navigationItemView);
+            }
+        }
+
+        @Override
+        public void onItemInserted(int position, int itemId) {
+            NavigationItemView navigationItemView = newItem();
+            navigationItemView.setId(itemId);
+            navigationItemView.setLayoutGravity(mItemGravityMode);
+            mNavigationItemViewList.add(position, navigationItemView);
+            if (!mFlatMode) {
+                addViewInLayout(navigationItemView, getItemChildOffset() + position
+                        , newItemLayoutParams(navigationItemView.getWidthWeight()), true);
+            }
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition) {
+            NavigationItemView navigationItemView = mNavigationItemViewList.remove(fromPosition);
+            mNavigationItemViewList.add(toPosition, navigationItemView);
+            if (!mFlatMode) {
+                removeViewInLayout(navigationItemView);
+                addViewInLayout(navigationItemView, getItemChildOffset() + toPosition
+                        , newItemLayoutParams(navigationItemView.getWidthWeight()), true);
+            }
+        }
+    };
+
+    /**
+     * draw all items in one single view instead of inflating item layouts
+     */
+    private boolean mFlatMode;
+    /**
+     * the only child in flat mode
+     */
+    private FlatNavigationView mFlatNavigationView;
+
+    /**
+     * scroll items and only materialize the visible ones, items are set by setItems() only
+     */
+    private boolean mScrollMode;
+    /**
+     * the only item child in scroll mode
+     */
+    private ScrollingNavigationView mScrollingNavigationView;
+    /**
+     * specs of all items by position in scroll mode
+     */
+    private List<ItemSpec> mScrollItemSpecs;
+    private int mScrollItemWidth;
+
+    /**
+     * the scrolling view binds items from specs and state, there are no item views to change
+     */
+    private final NavigationState.DiffCallback mScrollItemDiffCallback = new NavigationState.DiffCallback() {
+        @Override
+        public void onItemRemoved(int position) {
+        }
+
+        @Override
+        public void onItemInserted(int position, int itemId) {
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition) {
+        }
+    };
+
+    /**
+     * cached widths of children split by weights
+     */
+    private int[] mChildWidths;
+    private float[] mChildWeights;
+    private int mCachedContentWidth = -1;
+    private int mCachedChildCount = -1;
+    private boolean mChildWidthsDirty = true;
+
+    /**
+     * badges posted from any thread and waiting for next frame, item id to number
+     */
+    private final Object mPendingBadgeLock = new Object();
+    private SparseIntArray mPendingBadgeArray = new SparseIntArray();
+    private SparseIntArray mApplyingBadgeArray = new SparseIntArray();
+    private boolean isPendingBadgeScheduled;
+
+    private final Runnable mScheduleBadgesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            ViewCompat.postOnAnimation(BottomNavigationView.this, mApplyBadgesRunnable);
+        }
+    };
+
+    private final Runnable mApplyBadgesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            applyPendingBadges();
+        }
+    };
 
-    //NavigationItemView params
     /**
-     * the icon size(with = height) of item
+     * trace sections and metrics sink, null when both are disabled
      */
-    private int mItemIconSize;
+    private NavigationMetrics mMetrics;
+
     /**
-     * the text color of item
+     * latency from the tap up to the frame drawing the new checked item, null if disabled
      */
-    private ColorStateList mItemTextColor;
+    private LatencyHistogram mTapToFrameLatencyHistogram;
     /**
-     * the text size of item
+     * duration of OnNavigationItemSelectedListener.onItemSelected() inside dispatch, null if disabled
      */
-    private float mItemTextSize;
+    private LatencyHistogram mListenerLatencyHistogram;
     /**
-     * the text would be bold style when tab is selected
+     * uptime of the tap up waiting for the checked item to be drawn, 0 if none
      */
-    private boolean mItemTextSelectedBold;
+    private long mPendingTapUpTime;
+
     /**
-     * the number text color
+     * the style of NavigationItemView, shared with other bars of the same theme and style
      */
-    private ColorStateList mItemNumberTextColor;
+    private ItemStyle mItemStyle;
+
     /**
-     * the number text size
+     * loader of NavigationItemView.loadIcon(), LocalIconLoader if not set
      */
-    private float mItemNumberTextSize;
+    private IconLoader mIconLoader;
+
     /**
-     * the background of number text
+     * draw icons of all items from one atlas bitmap
      */
-    private Drawable mItemNumberBackgroundDrawable;
+    private boolean isIconAtlasEnabled;
+    private boolean isIconAtlasScheduled;
+
+    private final Runnable mBuildIconAtlasRunnable = new Runnable() {
+        @Override
+        public void run() {
+            buildIconAtlas();
+        }
+    };
+
     /**
-     * the margin left/top of item number text
+     * animate checked state of items and the indicator by render properties only
      */
-    private int mItemNumberMarginLeft, mItemNumberMarginTop;
+    private boolean isSelectionAnimationEnabled;
     /**
-     * the margin between text and icon
+     * indicator of the checked item, it is the first child and laid out over the content width,
+     * then moved to the checked item by translation and scale only
      */
-    private float mItemDrawablePadding;
+    private View mIndicatorView;
+    private int mIndicatorHeight;
+    private Rect mTempRect = new Rect();
+
     /**
-     * the padding of item bottom
+     * checked item and badges restored from saved state and waiting for their items to be added,
+     * mRestoredBadgeArray is null if nothing is waiting
      */
-    private int mItemBottomPadding;
+    private int mRestoredCheckedItemId = NO_ID;
+    private SparseIntArray mRestoredBadgeArray;
 
     public BottomNavigationView(Context context) {
         super(context);
@@ -120,31 +347,16 @@ public class BottomNavigationView extends LinearLayout {
     private void init(AttributeSet attrs) {
         setOrientation(LinearLayout.HORIZONTAL);
 
-        TypedArray lAttrs = getContext().obtainStyledAttributes(attrs, R.styleable.BottomNavigationView);
-        mItemGravityMode = lAttrs.getInt(R.styleable.BottomNavigationView_BottomNavigationView_tabItemGravity, 0);
-        //icon
-        mItemIconSize = lAttrs.getDimensionPixelSize(R.styleable.BottomNavigationView_BottomNavigationView_tabIconSize
-                , getResources().getDimensionPixelSize(R.dimen.bottom_navigation_view_item_icon_size));
-        //tab text
-        mItemTextColor = lAttrs.getColorStateList(R.styleable.BottomNavigationView_BottomNavigationView_tabTextColor);
-        mItemTextSize = lAttrs.getDimension(R.styleable.BottomNavigationView_BottomNavigationView_tabTextSize
-                , getResources().getDimension(R.dimen.bottom_navigation_view_item_text_size));
-        mItemTextSelectedBold = lAttrs.getBoolean(R.styleable.BottomNavigationView_BottomNavigationView_tabTextSelectedBoldStyle, false);
-
-        //number text
-        mItemNumberTextColor = lAttrs.getColorStateList(R.styleable.BottomNavigationView_BottomNavigationView_tabNumberTextColor);
-        mItemNumberTextSize = lAttrs.getDimension(R.styleable.BottomNavigationView_BottomNavigationView_tabNumberTextSize
-                , getResources().getDimension(R.dimen.bottom_navigation_view_item_number_text_size));
-        mItemNumberBackgroundDrawable = lAttrs.getDrawable(R.styleable.BottomNavigationView_BottomNavigationView_tabNumberBackground);
-        mItemNumberMarginLeft = lAttrs.getDimensionPixelSize(R.styleable.BottomNavigationView_BottomNavigationView_tabNumberMarginLeft
-                , getResources().getDimensionPixelSize(R.dimen.bottom_navigation_view_item_number_margin_left));
-        mItemNumberMarginTop = lAttrs.getDimensionPixelSize(R.styleable.BottomNavigationView_BottomNavigationView_tabNumberMarginTop
-                , getResources().getDimensionPixelSize(R.dimen.bottom_navigation_view_item_number_margin_top));
-
-        mItemDrawablePadding = lAttrs.getDimension(R.styleable.BottomNavigationView_BottomNavigationView_tabDrawablePadding
-                , getResources().getDimension(R.dimen.bottom_navigation_view_item_drawable_margin_top));
-        mItemBottomPadding = lAttrs.getDimensionPixelSize(R.styleable.BottomNavigationView_BottomNavigationView_tabBottomPadding
-                , getResources().getDimensionPixelSize(R.dimen.bottom_navigation_view_item_margin_bottom));
+        mItemStyle = ItemStyle.obtain(getContext(), attrs);
+        mItemGravityMode = mItemStyle.itemGravityMode;
+        mScrollMode = mItemStyle.scrollMode;
+        //items are views in scroll mode, it wins over flat mode
+        mFlatMode = mItemStyle.flatMode && !mScrollMode;
+        mScrollItemWidth = mItemStyle.scrollItemWidth;
+        isIconAtlasEnabled = mItemStyle.iconAtlas;
+        isSelectionAnimationEnabled = mItemStyle.selectionAnimation;
+        mIndicatorHeight = mItemStyle.indicatorHeight;
+        setSelectionIndicator(mItemStyle.newIndicator(getResources()));
     }
 
     /**
@@ -153,155 +365,1464 @@ public class BottomNavigationView extends LinearLayout {
      * @return
      */
     public NavigationItemView newItem() {
-        NavigationItemView navigationItemView = new NavigationItemView(getContext(), this);
-        navigationItemView.setIconSize(mItemIconSize);
-        navigationItemView.setTextColorStateList(mItemTextColor);
-        navigationItemView.setTextSize(mItemTextSize);
-        navigationItemView.setTextSelectedBold(mItemTextSelectedBold);
-        navigationItemView.setNumberTextColor(mItemNumberTextColor);
-        navigationItemView.setNumberTextSize(mItemNumberTextSize);
-        navigationItemView.setNumberBackground(mItemNumberBackgroundDrawable);
-        navigationItemView.setNumberMargin(mItemNumberMarginLeft, mItemNumberMarginTop);
-        navigationItemView.setDrawableGap(mItemDrawablePadding);
-        navigationItemView.setItemMarginBottom(mItemBottomPadding);
-        return navigationItemView;
+        //the item style is applied when the item is built
+        return new NavigationItemView(getContext(), this);
+    }
+
+    /**
+     * create items on a background thread, so item views are not built on the critical path of first frame.
+     * The items are not attached to any parent until they are delivered on main thread,
+     * call addItem() for them in OnItemsPreparedListener.onItemsPrepared().
+     *
+     * @param count
+     * @param onItemsPreparedListener
+     */
+    public void prepareItems(final int count, final OnItemsPreparedListener onItemsPreparedListener) {
+        if (count <= 0 || onItemsPreparedListener == null) {
+            return;
+        }
+        NavigationExecutors.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<NavigationItemView> navigationItemViews = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    NavigationItemView navigationItemView = newItem();
+                    onItemsPreparedListener.onPrepareItem(navigationItemView, i);
+                    navigationItemViews.add(navigationItemView);
+                }
+                NavigationExecutors.main().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onItemsPreparedListener.onItemsPrepared(navigationItemViews);
+                    }
+                });
+            }
+        });
     }
 
     /**
-     * add item
+     * add item, the id of item should be set before adding and be unique in the bar.
+     * It doesn't work in scroll mode, use setItems().
      *
      * @param navigationItemView
+     * @throws IllegalArgumentException if the id is used by another item, e.g. View.NO_ID of items without id
      */
     public void addItem(NavigationItemView navigationItemView) {
-
-        if (mNavigationItemViewList == null) {
-            mNavigationItemViewList = new ArrayList<>(2);
+        if (mScrollMode) {
+            return;
+        }
+        NavigationMetrics metrics = mMetrics;
+        long startNanos = metrics == null ? 0 : metrics.beginSection(NavigationMetricsSink.SECTION_ADD_ITEM);
+        try {
+            performAddItem(navigationItemView);
+        } finally {
+            if (metrics != null) {
+                metrics.endSection(NavigationMetricsSink.SECTION_ADD_ITEM, navigationItemView.getId(), startNanos);
+            }
         }
+    }
 
-        if (mNavigationItemViewList.isEmpty()) {
-            mCurrentCheckedItemId = navigationItemView.getId();
-            navigationItemView.setCheckedState(true);
+    private void performAddItem(NavigationItemView navigationItemView) {
+
+        int itemId = navigationItemView.getId();
+        //the state checks it too, but the item list is changed first for the checked callback
+        if (mNavigationState.indexOf(itemId) != -1) {
+            throw new IllegalArgumentException("Duplicate item id: " + itemId);
         }
+        ensureItemList();
+
         mNavigationItemViewList.add(navigationItemView);
+        //only the new item needs the gravity, the others have been set when they were added
+        navigationItemView.setLayoutGravity(mItemGravityMode);
+        //the first item is checked by the state
+        mNavigationState.addItem(itemId, navigationItemView.getBadgeValue());
+        applyRestoredState();
+        onItemIconChanged();
 
-        LinearLayout.LayoutParams params = new LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
-        params.weight = 1;
-        addView(navigationItemView, params);
+        if (mFlatMode) {
+            ensureFlatNavigationView();
+            mFlatNavigationView.notifyItemsChanged();
+            return;
+        }
 
-        setItemGravityMode(mItemGravityMode);
+        mChildWidthsDirty = true;
+        addView(navigationItemView, newItemLayoutParams(navigationItemView.getWidthWeight()));
     }
 
     /**
-     * remove item
+     * set all items by specs, the current items will be updated to match the specs with minimal changes.
+     * Items with same id are reused and only their changed properties are applied,
+     * the others are created, removed or moved, then the bar is laid out only once.
      *
-     * @param itemId
+     * @param itemSpecs ids of the specs should be unique
+     * @throws IllegalArgumentException if an id is used more than once, nothing is changed then
      */
-    public void removeItem(int itemId) {
+    public void setItems(List<ItemSpec> itemSpecs) {
 
-        if (mNavigationItemViewList == null || mNavigationItemViewList.isEmpty()) {
+        if (mScrollMode) {
+            setScrollItems(itemSpecs);
             return;
         }
+        ensureItemList();
 
-        for (NavigationItemView navigationItemView : mNavigationItemViewList) {
-            if (navigationItemView.getId() == itemId) {
-                mNavigationItemViewList.remove(navigationItemView);
-                removeView(navigationItemView);
-                break;
-            }
+        int[] itemIds = new int[itemSpecs.size()];
+        for (int i = 0; i < itemIds.length; i++) {
+            itemIds[i] = itemSpecs.get(i).getId();
+        }
+        //removes, inserts and moves
+        boolean changed = mNavigationState.setItemIds(itemIds, itemIds.length, mItemDiffCallback);
+
+        //property changes
+        for (int i = 0; i < itemIds.length; i++) {
+            mNavigationItemViewList.get(i).bindItemSpec(itemSpecs.get(i));
         }
 
+        //keep the checked item if it still exists, otherwise check the first one like addItem()
+        applyRestoredState();
+        mNavigationState.ensureChecked();
+
+        if (!changed) {
+            return;
+        }
+        onItemIconChanged();
+        if (mFlatMode) {
+            if (!mNavigationItemViewList.isEmpty()) {
+                ensureFlatNavigationView();
+            }
+            if (mFlatNavigationView != null) {
+                mFlatNavigationView.notifyItemsChanged();
+            }
+        } else {
+            mChildWidthsDirty = true;
+            requestLayout();
+            invalidate();
+        }
     }
 
     /**
-     * remove  item by position
+     * set items in scroll mode, only the materialized items are bound again if anything changed
      *
-     * @param itemPosition
+     * @param itemSpecs
      */
-    public void removeItemPosition(int itemPosition) {
-        if (mNavigationItemViewList == null || mNavigationItemViewList.isEmpty()) {
-            return;
+    private void setScrollItems(List<ItemSpec> itemSpecs) {
+        ensureScrollingNavigationView();
+
+        SparseArray<ItemSpec> lastItemSpecs = new SparseArray<>(mScrollItemSpecs.size());
+        for (ItemSpec itemSpec : mScrollItemSpecs) {
+            lastItemSpecs.put(itemSpec.getId(), itemSpec);
         }
-        if (mNavigationItemViewList.size() <= itemPosition) {
+        int[] itemIds = new int[itemSpecs.size()];
+        for (int i = 0; i < itemIds.length; i++) {
+            itemIds[i] = itemSpecs.get(i).getId();
+        }
+        boolean changed = mNavigationState.setItemIds(itemIds, itemIds.length, mScrollItemDiffCallback);
+
+        mScrollItemSpecs.clear();
+        for (int i = 0; i < itemIds.length; i++) {
+            ItemSpec itemSpec = itemSpecs.get(i);
+            ItemSpec lastItemSpec = lastItemSpecs.get(itemSpec.getId());
+            //like bindItemSpec(), badges posted later are kept unless the badge of spec changes
+            if (lastItemSpec == null || !lastItemSpec.isSameBadge(itemSpec)) {
+                Integer number = itemSpec.getNumber();
+                mNavigationState.setBadge(i, itemSpec.isShowDot() ? BADGE_DOT
+                        : number == null ? NavigationState.BADGE_NONE : Math.max(number, NavigationState.BADGE_NONE));
+            }
+            changed |= lastItemSpec == null || !lastItemSpec.equals(itemSpec);
+            mScrollItemSpecs.add(itemSpec.copy());
+        }
+
+        applyRestoredState();
+        mNavigationState.ensureChecked();
+        if (changed) {
+            mScrollingNavigationView.notifyItemsChanged();
+        }
+    }
+
+    private void ensureScrollingNavigationView() {
+        if (mScrollingNavigationView == null) {
+            mScrollItemSpecs = new ArrayList<>();
+            mScrollingNavigationView = new ScrollingNavigationView(this, mScrollItemSpecs);
+            mScrollingNavigationView.setMinItemWidth(mScrollItemWidth);
+            addView(mScrollingNavigationView, newItemLayoutParams(1));
+        }
+    }
+
+    private void ensureItemList() {
+        if (mNavigationItemViewList == null) {
+            mNavigationItemViewList = new ArrayList<>(2);
+        }
+    }
+
+    private void ensureFlatNavigationView() {
+        if (mFlatNavigationView == null) {
+            mFlatNavigationView = new FlatNavigationView(this, mNavigationItemViewList);
+            addView(mFlatNavigationView, newItemLayoutParams(1));
+        }
+    }
+
+    private LinearLayout.LayoutParams newItemLayoutParams(float weight) {
+        LinearLayout.LayoutParams params = new LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+        params.weight = weight;
+        return params;
+    }
+
+    /**
+     * call when width weight of an item is changed
+     */
+    void onItemWidthWeightChanged() {
+        if (mFlatMode) {
+            if (mFlatNavigationView != null) {
+                mFlatNavigationView.notifyItemsChanged();
+                updateIndicator(false);
+            }
             return;
         }
-        removeView(mNavigationItemViewList.get(itemPosition));
-        mNavigationItemViewList.remove(itemPosition);
+        mChildWidthsDirty = true;
+        requestLayout();
     }
 
-    public void setItemGravityMode(@ItemGravityMode int itemGravityMode) {
-        mItemGravityMode = itemGravityMode;
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        NavigationMetrics metrics = mMetrics;
+        long startNanos = metrics == null ? 0 : metrics.beginSection(NavigationMetricsSink.SECTION_MEASURE);
+        try {
+            measureItems(widthMeasureSpec, heightMeasureSpec);
+        } finally {
+            if (metrics != null) {
+                metrics.endSection(NavigationMetricsSink.SECTION_MEASURE, NO_ID, startNanos);
+            }
+        }
+    }
 
-        if (mNavigationItemViewList == null || mNavigationItemViewList.isEmpty()) {
+    /**
+     * measure children in one pass, the width is split by weight of children which is 1 by default.
+     * LinearLayout measures weighted children twice, it is not needed as children always fill the width.
+     *
+     * @param widthMeasureSpec
+     * @param heightMeasureSpec
+     */
+    private void measureItems(int widthMeasureSpec, int heightMeasureSpec) {
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
             return;
         }
-        for (NavigationItemView navigationItemView : mNavigationItemViewList) {
-            navigationItemView.setLayoutGravity(itemGravityMode);
+
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int childCount = getChildCount();
+        updateChildWidths(width - getPaddingLeft() - getPaddingRight(), childCount);
+
+        int verticalPadding = getPaddingTop() + getPaddingBottom();
+        int maxChildHeight = 0;
+        boolean hasMatchParentChild = false;
+        for (int i = 0; i < childCount; i++) {
+            View child = getChildAt(i);
+            if (child.getVisibility() == GONE || child == mIndicatorView) {
+                continue;
+            }
+            LinearLayout.LayoutParams params = (LinearLayout.LayoutParams) child.getLayoutParams();
+            child.measure(MeasureSpec.makeMeasureSpec(mChildWidths[i], MeasureSpec.EXACTLY)
+                    , getChildMeasureSpec(heightMeasureSpec, verticalPadding + params.topMargin + params.bottomMargin
+                            , params.height));
+            maxChildHeight = Math.max(maxChildHeight, child.getMeasuredHeight() + params.topMargin + params.bottomMargin);
+            hasMatchParentChild |= params.height == LayoutParams.MATCH_PARENT;
+        }
+
+        int height = resolveSize(Math.max(maxChildHeight + verticalPadding, getSuggestedMinimumHeight())
+                , heightMeasureSpec);
+        setMeasuredDimension(width, height);
+
+        if (mIndicatorView != null) {
+            mIndicatorView.measure(MeasureSpec.makeMeasureSpec(width - getPaddingLeft() - getPaddingRight()
+                    , MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(mIndicatorHeight, MeasureSpec.EXACTLY));
+        }
+
+        //like LinearLayout, children matching parent height get the final height when the bar wraps content
+        if (hasMatchParentChild && MeasureSpec.getMode(heightMeasureSpec) != MeasureSpec.EXACTLY) {
+            for (int i = 0; i < childCount; i++) {
+                View child = getChildAt(i);
+                LinearLayout.LayoutParams params = (LinearLayout.LayoutParams) child.getLayoutParams();
+                if (child.getVisibility() != GONE && child != mIndicatorView
+                        && params.height == LayoutParams.MATCH_PARENT) {
+                    child.measure(MeasureSpec.makeMeasureSpec(mChildWidths[i], MeasureSpec.EXACTLY)
+                            , MeasureSpec.makeMeasureSpec(height - verticalPadding - params.topMargin - params.bottomMargin
+                                    , MeasureSpec.EXACTLY));
+                }
+            }
         }
     }
 
     /**
-     * get current selected item id
+     * split the width by weights, the result is cached while width, child count and weights are the same
      *
-     * @return
+     * @param contentWidth
+     * @param childCount
      */
-    public int getCurrentSelectedItemId() {
-        return mCurrentCheckedItemId;
+    private void updateChildWidths(int contentWidth, int childCount) {
+        if (!mChildWidthsDirty && contentWidth == mCachedContentWidth && childCount == mCachedChildCount) {
+            return;
+        }
+        if (mChildWidths == null || mChildWidths.length < childCount) {
+            mChildWidths = new int[childCount];
+            mChildWeights = new float[childCount];
+        }
+        for (int i = 0; i < childCount; i++) {
+            mChildWeights[i] = getChildWeight(getChildAt(i));
+        }
+        splitWidth(contentWidth, mChildWeights, childCount, mChildWidths);
+        mCachedContentWidth = contentWidth;
+        mCachedChildCount = childCount;
+        mChildWidthsDirty = false;
+    }
+
+    private float getChildWeight(View child) {
+        if (child.getVisibility() == GONE || child == mIndicatorView) {
+            return 0;
+        }
+        return getSlotWeight(((LinearLayout.LayoutParams) child.getLayoutParams()).weight);
     }
 
     /**
-     * get current item gravity mode
+     * get the weight an item takes, items without weight take 1
      *
+     * @param weight
      * @return
      */
-    public int getCurrentItemGravity() {
-        return mItemGravityMode;
+    static float getSlotWeight(float weight) {
+        return weight > 0 ? weight : 1;
     }
 
     /**
-     * dispatch item selected
+     * split the width by weights in order, it is used by item views and flat mode alike,
+     * so items get the same widths in both
+     *
+     * @param contentWidth
+     * @param weights
+     * @param count        count of weights used
+     * @param outWidths
+     */
+    static void splitWidth(int contentWidth, float[] weights, int count, int[] outWidths) {
+        float totalWeight = 0;
+        for (int i = 0; i < count; i++) {
+            totalWeight += weights[i];
+        }
+        float weight = 0;
+        int lastRight = 0;
+        for (int i = 0; i < count; i++) {
+            weight += weights[i];
+            //round the accumulated edge, so the widths always sum up to content width
+            int right = totalWeight == 0 ? 0 : Math.round(contentWidth * weight / totalWeight);
+            outWidths[i] = right - lastRight;
+            lastRight = right;
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        NavigationMetrics metrics = mMetrics;
+        long startNanos = metrics == null ? 0 : metrics.beginSection(NavigationMetricsSink.SECTION_LAYOUT);
+        try {
+            layoutItems();
+        } finally {
+            if (metrics != null) {
+                metrics.endSection(NavigationMetricsSink.SECTION_LAYOUT, NO_ID, startNanos);
+            }
+        }
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        NavigationMetrics metrics = mMetrics;
+        long startNanos = metrics == null ? 0 : metrics.beginSection(NavigationMetricsSink.SECTION_DRAW);
+        try {
+            super.dispatchDraw(canvas);
+        } finally {
+            if (metrics != null) {
+                metrics.endSection(NavigationMetricsSink.SECTION_DRAW, NO_ID, startNanos);
+            }
+        }
+    }
+
+    /**
+     * lay out children from left to right, or from right to left in RTL
+     */
+    private void layoutItems() {
+        boolean isRtl = ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL;
+        int childLeft = getPaddingLeft();
+        int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            View child = getChildAt(isRtl ? childCount - 1 - i : i);
+            if (child.getVisibility() == GONE || child == mIndicatorView) {
+                continue;
+            }
+            LinearLayout.LayoutParams params = (LinearLayout.LayoutParams) child.getLayoutParams();
+            int childTop = getPaddingTop() + params.topMargin;
+            child.layout(childLeft, childTop, childLeft + child.getMeasuredWidth()
+                    , childTop + child.getMeasuredHeight());
+            childLeft += child.getMeasuredWidth();
+        }
+
+        if (mIndicatorView != null) {
+            mIndicatorView.layout(getPaddingLeft(), getPaddingTop()
+                    , getPaddingLeft() + mIndicatorView.getMeasuredWidth(), getPaddingTop() + mIndicatorHeight);
+            updateIndicator(false);
+        }
+    }
+
+    /**
+     * remove item
      *
      * @param itemId
      */
-    public void dispatchItemSelected(int itemId) {
+    public void removeItem(int itemId) {
 
-        if (mNavigationItemViewList == null || mNavigationItemViewList.isEmpty()) {
+        if (mNavigationState.getItemCount() == 0) {
             return;
         }
 
-        if (mCurrentCheckedItemId == itemId) {
+        int itemPosition = mNavigationState.indexOf(itemId);
+        if (itemPosition == -1) {
             return;
         }
+        removeItemPosition(itemPosition);
+    }
 
-        if (mOnNavigationItemSelectedListener != null) {
-            mOnNavigationItemSelectedListener.onItemReleaseSelected(mCurrentCheckedItemId);
+    /**
+     * remove  item by position
+     *
+     * @param itemPosition
+     */
+    public void removeItemPosition(int itemPosition) {
+        if (mScrollMode) {
+            if (itemPosition < mNavigationState.getItemCount()) {
+                mScrollItemSpecs.remove(itemPosition);
+                mNavigationState.removeItemAt(itemPosition);
+                mScrollingNavigationView.notifyItemsChanged();
+            }
+            return;
+        }
+        if (mNavigationItemViewList == null || mNavigationItemViewList.isEmpty()) {
+            return;
+        }
+        if (mNavigationItemViewList.size() <= itemPosition) {
+            return;
         }
+        NavigationItemView navigationItemView = mNavigationItemViewList.remove(itemPosition);
+        mNavigationState.removeItemAt(itemPosition);
+        removeItemView(navigationItemView);
+    }
 
-        mCurrentCheckedItemId = itemId;
-        for (NavigationItemView navigationItemView : mNavigationItemViewList) {
-            if (navigationItemView.getId() == mCurrentCheckedItemId) {
-                navigationItemView.setCheckedState(true);
-            } else {
-                navigationItemView.setCheckedState(false);
-            }
+    /**
+     * get item by id
+     *
+     * @param itemId
+     * @return null if not found or not materialized in scroll mode
+     */
+    private NavigationItemView findItemById(int itemId) {
+        int itemPosition = mNavigationState.indexOf(itemId);
+        if (itemPosition == -1) {
+            return null;
         }
+        return getItemViewAt(itemPosition);
+    }
 
-        if (mOnNavigationItemSelectedListener != null) {
-            mOnNavigationItemSelectedListener.onItemSelected(itemId);
+    /**
+     * get item view by position
+     *
+     * @param itemPosition
+     * @return null if the item is not materialized in scroll mode
+     */
+    private NavigationItemView getItemViewAt(int itemPosition) {
+        if (mScrollMode) {
+            return mScrollingNavigationView.getActiveItem(itemPosition);
         }
+        return mNavigationItemViewList.get(itemPosition);
     }
 
     /**
-     * set OnNavigationItemSelectedListener
+     * post number of item from any thread, see postNumbers()
      *
-     * @param onNavigationItemSelectedListener
+     * @param itemId
+     * @param number number <= 0 won't be shown, BADGE_DOT to show dot
      */
-    public void setOnNavigationItemSelectedListener(OnNavigationItemSelectedListener onNavigationItemSelectedListener) {
-        mOnNavigationItemSelectedListener = onNavigationItemSelectedListener;
+    public void postNumber(int itemId, int number) {
+        synchronized (mPendingBadgeLock) {
+            mPendingBadgeArray.put(itemId, number);
+        }
+        schedulePendingBadges();
     }
 
-    public interface OnNavigationItemSelectedListener {
-        void onItemSelected(int itemId);
+    /**
+     * post dot of item from any thread, see postNumbers()
+     *
+     * @param itemId
+     * @param shown
+     */
+    public void postShowDot(int itemId, boolean shown) {
+        postNumber(itemId, shown ? BADGE_DOT : 0);
+    }
+
+    /**
+     * post numbers of items from any thread.
+     * All badges posted within one frame are applied together on main thread when the next frame starts,
+     * the last posted value wins for each item.
+     *
+     * @param numbers item id to number, number <= 0 won't be shown, BADGE_DOT to show dot
+     */
+    public void postNumbers(SparseIntArray numbers) {
+        synchronized (mPendingBadgeLock) {
+            for (int i = 0; i < numbers.size(); i++) {
+                mPendingBadgeArray.put(numbers.keyAt(i), numbers.valueAt(i));
+            }
+        }
+        schedulePendingBadges();
+    }
+
+    private void schedulePendingBadges() {
+        synchronized (mPendingBadgeLock) {
+            if (isPendingBadgeScheduled) {
+                return;
+            }
+            isPendingBadgeScheduled = true;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            mScheduleBadgesRunnable.run();
+        } else {
+            NavigationExecutors.main().post(mScheduleBadgesRunnable);
+        }
+    }
+
+    private void applyPendingBadges() {
+        SparseIntArray applyingBadgeArray;
+        synchronized (mPendingBadgeLock) {
+            applyingBadgeArray = mPendingBadgeArray;
+            mPendingBadgeArray = mApplyingBadgeArray;
+            mApplyingBadgeArray = applyingBadgeArray;
+            isPendingBadgeScheduled = false;
+        }
+        for (int i = 0; i < applyingBadgeArray.size(); i++) {
+            int itemPosition = mNavigationState.indexOf(applyingBadgeArray.keyAt(i));
+            if (itemPosition == -1) {
+                continue;
+            }
+            int number = applyingBadgeArray.valueAt(i);
+            applyBadge(itemPosition, number == BADGE_DOT ? BADGE_DOT : Math.max(number, NavigationState.BADGE_NONE));
+        }
+        applyingBadgeArray.clear();
+    }
+
+    /**
+     * set badge to item, the item view is not touched if the badge of state is the same
+     *
+     * @param itemPosition
+     * @param badge        BADGE_DOT, a number > 0 or 0 for none
+     */
+    private void applyBadge(int itemPosition, int badge) {
+        if (mNavigationState.getBadge(itemPosition) == badge) {
+            return;
+        }
+        if (mScrollMode) {
+            //the state keeps badges of items which are not materialized
+            mNavigationState.setBadge(itemPosition, badge);
+            mScrollingNavigationView.notifyItemChanged(itemPosition);
+            return;
+        }
+        NavigationItemView navigationItemView = mNavigationItemViewList.get(itemPosition);
+        if (badge == BADGE_DOT) {
+            navigationItemView.setShowDot(true);
+        } else {
+            navigationItemView.setNumber(badge);
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        int itemCount = mNavigationState.getItemCount();
+        savedState.checkedItemId = itemCount == 0 ? NO_ID : mNavigationState.getCheckedItemId();
+        //only items with badge are saved
+        int badgeCount = 0;
+        for (int i = 0; i < itemCount; i++) {
+            if (mNavigationState.getBadge(i) != NavigationState.BADGE_NONE) {
+                badgeCount++;
+            }
+        }
+        savedState.badgeItemIds = new int[badgeCount];
+        savedState.badges = new int[badgeCount];
+        for (int i = 0, j = 0; i < itemCount; i++) {
+            int badge = mNavigationState.getBadge(i);
+            if (badge != NavigationState.BADGE_NONE) {
+                savedState.badgeItemIds[j] = mNavigationState.getItemId(i);
+                savedState.badges[j] = badge;
+                j++;
+            }
+        }
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+
+        mRestoredCheckedItemId = savedState.checkedItemId;
+        mRestoredBadgeArray = new SparseIntArray(savedState.badgeItemIds.length);
+        for (int i = 0; i < savedState.badgeItemIds.length; i++) {
+            mRestoredBadgeArray.put(savedState.badgeItemIds[i], savedState.badges[i]);
+        }
+        //items added later, e.g. by prepareItems(), are restored when they are added
+        applyRestoredState();
+    }
+
+    /**
+     * apply the restored checked item and badges to the items which have been added,
+     * the checked item is restored without selected callbacks
+     */
+    private void applyRestoredState() {
+        if (mRestoredBadgeArray == null || mNavigationState.getItemCount() == 0) {
+            return;
+        }
+        for (int i = mRestoredBadgeArray.size() - 1; i >= 0; i--) {
+            int itemPosition = mNavigationState.indexOf(mRestoredBadgeArray.keyAt(i));
+            if (itemPosition != -1) {
+                applyBadge(itemPosition, mRestoredBadgeArray.valueAt(i));
+                mRestoredBadgeArray.removeAt(i);
+            }
+        }
+        if (mRestoredCheckedItemId != NO_ID && mNavigationState.indexOf(mRestoredCheckedItemId) != -1) {
+            mNavigationState.check(mRestoredCheckedItemId);
+            mRestoredCheckedItemId = NO_ID;
+        }
+        if (mRestoredCheckedItemId == NO_ID && mRestoredBadgeArray.size() == 0) {
+            mRestoredBadgeArray = null;
+        }
+    }
+
+    /**
+     * remove item view from layout or from flat view
+     *
+     * @param navigationItemView
+     */
+    private void removeItemView(NavigationItemView navigationItemView) {
+        onItemIconChanged();
+        if (mFlatMode) {
+            if (mFlatNavigationView != null) {
+                mFlatNavigationView.notifyItemsChanged();
+            }
+        } else {
+            removeView(navigationItemView);
+        }
+    }
+
+    /**
+     * set flat mode, all items will be drawn in one single view without inflating item layouts.
+     * It only works before any item is added.
+     *
+     * @param flatMode
+     */
+    public void setFlatMode(boolean flatMode) {
+        if (mNavigationState.getItemCount() > 0) {
+            return;
+        }
+        mFlatMode = flatMode;
+        if (flatMode) {
+            mScrollMode = false;
+        }
+    }
+
+    /**
+     * is flat mode
+     *
+     * @return
+     */
+    public boolean isFlatMode() {
+        return mFlatMode;
+    }
+
+    /**
+     * set scroll mode for many items, e.g. a category bar. Items keep at least the scroll item width
+     * and scroll horizontally, only the visible ones plus one beyond each edge are materialized as views
+     * and they are recycled when scrolled out. Selection and badges work by id for all items.
+     * Items are set by setItems() only in scroll mode. It only works before any item is added.
+     *
+     * @param scrollMode
+     */
+    public void setScrollMode(boolean scrollMode) {
+        if (mNavigationState.getItemCount() > 0) {
+            return;
+        }
+        mScrollMode = scrollMode;
+        if (scrollMode) {
+            mFlatMode = false;
+        }
+    }
+
+    /**
+     * is scroll mode
+     *
+     * @return
+     */
+    public boolean isScrollMode() {
+        return mScrollMode;
+    }
+
+    /**
+     * set min width of items in scroll mode, same as tabScrollItemWidth.
+     * Items are wider to fill the bar when they are too few to scroll.
+     *
+     * @param width
+     */
+    public void setScrollItemWidth(int width) {
+        mScrollItemWidth = width;
+        if (mScrollingNavigationView != null) {
+            mScrollingNavigationView.setMinItemWidth(width);
+        }
+    }
+
+    /**
+     * call when items are scrolled in scroll mode
+     */
+    void onItemsScrolled() {
+        updateIndicator(false);
+    }
+
+    /**
+     * redraw item in flat mode
+     *
+     * @param navigationItemView
+     */
+    void onFlatItemChanged(NavigationItemView navigationItemView) {
+        if (mFlatNavigationView != null) {
+            mFlatNavigationView.notifyItemChanged(mNavigationState.indexOf(navigationItemView.getId()));
+        }
+    }
+
+    /**
+     * record the badge of an added item into state
+     *
+     * @param navigationItemView
+     * @param badge
+     */
+    void onItemBadgeChanged(NavigationItemView navigationItemView, int badge) {
+        //items prepared on background thread are not added yet, addItem() reads their badges
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            return;
+        }
+        int itemPosition = mNavigationState.indexOf(navigationItemView.getId());
+        if (itemPosition != -1 && getItemViewAt(itemPosition) == navigationItemView) {
+            mNavigationState.setBadge(itemPosition, badge);
+        }
+    }
+
+    public void setItemGravityMode(@ItemGravityMode int itemGravityMode) {
+        mItemGravityMode = itemGravityMode;
+
+        if (mScrollingNavigationView != null) {
+            mScrollingNavigationView.notifyItemsChanged();
+        }
+        if (mNavigationItemViewList == null || mNavigationItemViewList.isEmpty()) {
+            return;
+        }
+        for (NavigationItemView navigationItemView : mNavigationItemViewList) {
+            navigationItemView.setLayoutGravity(itemGravityMode);
+        }
+    }
+
+    /**
+     * get count of items
+     *
+     * @return
+     */
+    public int getItemCount() {
+        return mNavigationState.getItemCount();
+    }
+
+    /**
+     * get current selected item id
+     *
+     * @return
+     */
+    public int getCurrentSelectedItemId() {
+        return mNavigationState.getCheckedItemId();
+    }
+
+    /**
+     * get current item gravity mode
+     *
+     * @return
+     */
+    public int getCurrentItemGravity() {
+        return mItemGravityMode;
+    }
+
+    /**
+     * dispatch item selected
+     *
+     * @param itemId
+     */
+    public void dispatchItemSelected(int itemId) {
+        dispatchItemSelected(itemId, 0);
+    }
+
+    /**
+     * dispatch item selected by a tap
+     *
+     * @param itemId
+     * @param tapUpTime event time of the ACTION_UP, 0 if not selected by a tap
+     */
+    void dispatchItemSelected(int itemId, long tapUpTime) {
+
+        if (mNavigationState.getItemCount() == 0) {
+            return;
+        }
+        //the selection wins over the checked item waiting to be restored
+        mRestoredCheckedItemId = NO_ID;
+
+        NavigationMetrics metrics = mMetrics;
+        int lastItemId = mNavigationState.getCheckedItemId();
+        boolean selected;
+        long startNanos = metrics == null ? 0
+                : metrics.beginSection(NavigationMetricsSink.SECTION_DISPATCH_ITEM_SELECTED);
+        try {
+            selected = mNavigationState.select(itemId);
+        } finally {
+            if (metrics != null) {
+                metrics.endSection(NavigationMetricsSink.SECTION_DISPATCH_ITEM_SELECTED, itemId, startNanos);
+            }
+        }
+        //the checked item of a pending burst is not settled yet, selecting it again is part of the burst
+        if (!selected && itemId == lastItemId && !isCoalescedSelectionPending
+                && mOnNavigationItemReselectedListener != null) {
+            mOnNavigationItemReselectedListener.onItemReselected(itemId);
+        }
+        //selections of a pending burst are recorded once when the burst is dispatched
+        if (selected && !isCoalescedSelectionPending) {
+            recordTransition(lastItemId, itemId);
+        }
+
+        if (selected && tapUpTime > 0 && mTapToFrameLatencyHistogram != null) {
+            mPendingTapUpTime = tapUpTime;
+            //the checked item only redraws its icon and title, make sure the item itself is drawn to be noticed
+            NavigationItemView checkedItemView = findItemById(itemId);
+            if (checkedItemView != null && !mFlatMode) {
+                checkedItemView.invalidate();
+            }
+        }
+    }
+
+    /**
+     * call the selected listener for the last selection of a burst within the window only, the checked state
+     * of items still changes on every selection. The item selected before the burst is released then,
+     * and nothing is called if the burst ends on it. 0 to disable, default is 0.
+     *
+     * @param windowMillis the window from the first selection of a burst
+     */
+    public void setSelectionCoalescingWindow(long windowMillis) {
+        mSelectionCoalescingWindow = Math.max(0, windowMillis);
+        if (mSelectionCoalescingWindow == 0) {
+            dispatchCoalescedSelection();
+        }
+    }
+
+    /**
+     * get the window of coalescing selections
+     *
+     * @return 0 if disabled
+     */
+    public long getSelectionCoalescingWindow() {
+        return mSelectionCoalescingWindow;
+    }
+
+    /**
+     * call the listener for the burst of selections waiting for the end of the window
+     */
+    private void dispatchCoalescedSelection() {
+        if (!isCoalescedSelectionPending) {
+            return;
+        }
+        isCoalescedSelectionPending = false;
+        NavigationExecutors.main().removeCallbacks(mDispatchCoalescedSelectionRunnable);
+        if (mCoalescedReleasedItemId == mCoalescedSelectedItemId) {
+            return;
+        }
+        notifyItemReleaseSelected(mCoalescedReleasedItemId);
+        notifyItemSelected(mCoalescedSelectedItemId);
+        recordTransition(mCoalescedReleasedItemId, mCoalescedSelectedItemId);
+    }
+
+    /**
+     * record a dispatched selection to the predictor, the items passed within a burst are not recorded
+     *
+     * @param fromItemId
+     * @param toItemId
+     */
+    private void recordTransition(int fromItemId, int toItemId) {
+        if (mTabTransitionPredictor != null) {
+            mTabTransitionPredictor.onItemSelected(fromItemId, toItemId);
+        }
+    }
+
+    private void notifyItemReleaseSelected(int itemId) {
+        if (mOnNavigationItemSelectedListener != null) {
+            mOnNavigationItemSelectedListener.onItemReleaseSelected(itemId);
+        }
+        SelectedListenerEntry[] entries = mSelectedListenerEntries;
+        for (SelectedListenerEntry entry : entries) {
+            entry.dispatch(this, SelectedListenerEntry.EVENT_RELEASE_SELECTED, itemId);
+        }
+    }
+
+    private void notifyItemSelected(int itemId) {
+        SelectedListenerEntry[] entries = mSelectedListenerEntries;
+        if (mOnNavigationItemSelectedListener == null && entries.length == 0) {
+            return;
+        }
+        LatencyHistogram listenerLatencyHistogram = mListenerLatencyHistogram;
+        long startNanos = listenerLatencyHistogram == null ? 0 : System.nanoTime();
+        if (mOnNavigationItemSelectedListener != null) {
+            mOnNavigationItemSelectedListener.onItemSelected(itemId);
+        }
+        for (SelectedListenerEntry entry : entries) {
+            entry.dispatch(this, SelectedListenerEntry.EVENT_SELECTED, itemId);
+        }
+        if (listenerLatencyHistogram != null) {
+            listenerLatencyHistogram.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        //the listener still gets the last selection when the bar is gone
+        dispatchCoalescedSelection();
+    }
+
+    /**
+     * measure the latency of tap to selected frame and of OnNavigationItemSelectedListener.onItemSelected(),
+     * null to disable. Disabled by default. The histograms can be shared by bars and polled from any thread.
+     *
+     * @param tapToFrameLatencyHistogram from the ACTION_UP which selects an item to the frame drawing it checked
+     * @param listenerLatencyHistogram   duration of OnNavigationItemSelectedListener.onItemSelected()
+     */
+    public void setSelectionLatencyHistograms(LatencyHistogram tapToFrameLatencyHistogram
+            , LatencyHistogram listenerLatencyHistogram) {
+        mTapToFrameLatencyHistogram = tapToFrameLatencyHistogram;
+        mListenerLatencyHistogram = listenerLatencyHistogram;
+        mPendingTapUpTime = 0;
+    }
+
+    /**
+     * call when an item is drawn, record the tap to frame latency if it is the checked item selected by a tap
+     *
+     * @param itemId
+     */
+    void onItemDrawn(int itemId) {
+        if (mPendingTapUpTime == 0 || itemId != mNavigationState.getCheckedItemId()) {
+            return;
+        }
+        LatencyHistogram tapToFrameLatencyHistogram = mTapToFrameLatencyHistogram;
+        if (tapToFrameLatencyHistogram != null) {
+            tapToFrameLatencyHistogram.record(TimeUnit.MILLISECONDS.toNanos(
+                    SystemClock.uptimeMillis() - mPendingTapUpTime));
+        }
+        mPendingTapUpTime = 0;
+    }
+
+    /**
+     * set the sink to receive counts and durations of the bar and items, null to disable.
+     * It is disabled by default and costs nothing when disabled.
+     *
+     * @param metricsSink
+     */
+    public void setMetricsSink(NavigationMetricsSink metricsSink) {
+        updateMetrics(metricsSink, mMetrics != null && mMetrics.isTraceEnabled());
+    }
+
+    /**
+     * wrap item creation, addItem(), dispatchItemSelected(), setNumber(), measure, layout and draw
+     * in systrace sections. It is disabled by default and costs nothing when disabled.
+     *
+     * @param traceEnabled
+     */
+    public void setTraceEnabled(boolean traceEnabled) {
+        updateMetrics(mMetrics == null ? null : mMetrics.getSink(), traceEnabled);
+    }
+
+    private void updateMetrics(NavigationMetricsSink metricsSink, boolean traceEnabled) {
+        mMetrics = metricsSink == null && !traceEnabled ? null : new NavigationMetrics(metricsSink, traceEnabled);
+    }
+
+    /**
+     * set loader of icons for NavigationItemView.loadIcon(), LocalIconLoader is used by default
+     *
+     * @param iconLoader
+     */
+    public void setIconLoader(IconLoader iconLoader) {
+        mIconLoader = iconLoader;
+    }
+
+    /**
+     * get loader of icons
+     *
+     * @return
+     */
+    IconLoader getIconLoader() {
+        if (mIconLoader == null) {
+            mIconLoader = new LocalIconLoader();
+        }
+        return mIconLoader;
+    }
+
+    /**
+     * draw icons of all items from one atlas bitmap of both checked and unchecked states,
+     * there are fewer bitmaps and only one texture upload for many items.
+     * The atlas is rebuilt after icons or icon sizes of items change.
+     *
+     * @param iconAtlasEnabled
+     */
+    public void setIconAtlasEnabled(boolean iconAtlasEnabled) {
+        if (isIconAtlasEnabled == iconAtlasEnabled) {
+            return;
+        }
+        isIconAtlasEnabled = iconAtlasEnabled;
+        if (iconAtlasEnabled) {
+            onItemIconChanged();
+        } else if (mNavigationItemViewList != null) {
+            for (NavigationItemView navigationItemView : mNavigationItemViewList) {
+                navigationItemView.setAtlasIcon(null);
+            }
+        }
+    }
+
+    /**
+     * is icon atlas enabled
+     *
+     * @return
+     */
+    public boolean isIconAtlasEnabled() {
+        return isIconAtlasEnabled;
+    }
+
+    /**
+     * call when icon or icon size of an item is changed, the atlas is rebuilt once for all changes of a main loop task
+     */
+    void onItemIconChanged() {
+        //items prepared on background thread are not added yet, addItem() rebuilds the atlas
+        if (!isIconAtlasEnabled || isIconAtlasScheduled || Looper.myLooper() != Looper.getMainLooper()) {
+            return;
+        }
+        isIconAtlasScheduled = true;
+        NavigationExecutors.main().post(mBuildIconAtlasRunnable);
+    }
+
+    private void buildIconAtlas() {
+        isIconAtlasScheduled = false;
+        if (!isIconAtlasEnabled || mNavigationItemViewList == null) {
+            return;
+        }
+        int count = mNavigationItemViewList.size();
+        Drawable[] icons = new Drawable[count];
+        int[] iconSizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            NavigationItemView navigationItemView = mNavigationItemViewList.get(i);
+            icons[i] = navigationItemView.getIconDrawable();
+            iconSizes[i] = navigationItemView.getIconSize();
+        }
+        IconAtlas iconAtlas = IconAtlas.build(icons, iconSizes, count);
+        for (int i = 0; i < count; i++) {
+            mNavigationItemViewList.get(i).setAtlasIcon(iconAtlas == null || icons[i] == null ? null
+                    : new AtlasIconDrawable(iconAtlas, i));
+        }
+    }
+
+    /**
+     * animate the checked state: icon scale, title alpha and translation of items and the sliding indicator.
+     * Only render properties are animated by ViewPropertyAnimator, so there is no measure or layout while animating.
+     * Icon and title are not animated in flat mode. Use tabTextSelectedFakeBold with tabTextSelectedBoldStyle,
+     * switching typeface requests layout.
+     *
+     * @param selectionAnimationEnabled
+     */
+    public void setSelectionAnimationEnabled(boolean selectionAnimationEnabled) {
+        if (isSelectionAnimationEnabled == selectionAnimationEnabled) {
+            return;
+        }
+        isSelectionAnimationEnabled = selectionAnimationEnabled;
+        if (mScrollingNavigationView != null) {
+            mScrollingNavigationView.onSelectionAnimationChanged();
+        }
+        if (mNavigationItemViewList == null) {
+            return;
+        }
+        for (NavigationItemView navigationItemView : mNavigationItemViewList) {
+            navigationItemView.onSelectionAnimationChanged();
+        }
+    }
+
+    /**
+     * is selection animation enabled
+     *
+     * @return
+     */
+    public boolean isSelectionAnimationEnabled() {
+        return isSelectionAnimationEnabled;
+    }
+
+    /**
+     * set the indicator of checked item drawn at the top of bar, null to remove it
+     *
+     * @param indicator
+     */
+    public void setSelectionIndicator(Drawable indicator) {
+        if (indicator == null) {
+            if (mIndicatorView != null) {
+                removeView(mIndicatorView);
+                mIndicatorView = null;
+            }
+            return;
+        }
+        if (mIndicatorView == null) {
+            mIndicatorView = new View(getContext());
+            mIndicatorView.setPivotX(0);
+            mIndicatorView.setPivotY(0);
+            //hidden until it is moved to the checked item
+            mIndicatorView.setAlpha(0);
+            addView(mIndicatorView, 0, new LayoutParams(LayoutParams.MATCH_PARENT, mIndicatorHeight));
+        }
+        ViewCompat.setBackground(mIndicatorView, indicator);
+    }
+
+    /**
+     * set height of indicator
+     *
+     * @param indicatorHeight
+     */
+    public void setSelectionIndicatorHeight(int indicatorHeight) {
+        if (mIndicatorHeight == indicatorHeight) {
+            return;
+        }
+        mIndicatorHeight = indicatorHeight;
+        if (mIndicatorView != null) {
+            mIndicatorView.getLayoutParams().height = indicatorHeight;
+            mIndicatorView.requestLayout();
+        }
+    }
+
+    /**
+     * items are children after the indicator
+     *
+     * @return
+     */
+    private int getItemChildOffset() {
+        return mIndicatorView == null ? 0 : 1;
+    }
+
+    /**
+     * move the indicator over the checked item by translation and scale
+     *
+     * @param animate
+     */
+    private void updateIndicator(boolean animate) {
+        if (mIndicatorView == null || mIndicatorView.getWidth() == 0) {
+            return;
+        }
+        int itemPosition = mNavigationState.indexOf(mNavigationState.getCheckedItemId());
+        float alpha = itemPosition == -1 ? 0 : 1;
+        float translationX = mIndicatorView.getTranslationX();
+        float scaleX = mIndicatorView.getScaleX();
+        if (itemPosition != -1) {
+            int itemLeft;
+            int itemWidth;
+            if (mFlatMode) {
+                mFlatNavigationView.getItemBounds(itemPosition, mTempRect);
+                itemLeft = mFlatNavigationView.getLeft() + mTempRect.left;
+                itemWidth = mTempRect.width();
+            } else if (mScrollMode) {
+                //the checked item may not be materialized, its bounds are known by position
+                itemLeft = mScrollingNavigationView.getLeft() + mScrollingNavigationView.getItemLeft(itemPosition);
+                itemWidth = mScrollingNavigationView.getItemWidth(itemPosition);
+            } else {
+                View itemView = mNavigationItemViewList.get(itemPosition);
+                itemLeft = itemView.getLeft();
+                itemWidth = itemView.getWidth();
+            }
+            translationX = itemLeft - mIndicatorView.getLeft();
+            scaleX = (float) itemWidth / mIndicatorView.getWidth();
+        }
+
+        mIndicatorView.animate().cancel();
+        //the indicator slides only when it is shown, otherwise it appears at the checked item
+        if (animate && mIndicatorView.getAlpha() > 0 && alpha > 0) {
+            mIndicatorView.animate().translationX(translationX).scaleX(scaleX)
+                    .setDuration(mItemStyle.animationDuration);
+            return;
+        }
+        mIndicatorView.setTranslationX(translationX);
+        mIndicatorView.setScaleX(scaleX);
+        mIndicatorView.setAlpha(alpha);
+    }
+
+    /**
+     * get the style of items
+     *
+     * @return
+     */
+    ItemStyle getItemStyle() {
+        return mItemStyle;
+    }
+
+    /**
+     * get the item ids, checked item and badges
+     *
+     * @return
+     */
+    NavigationState getNavigationState() {
+        return mNavigationState;
+    }
+
+    /**
+     * get trace sections and metrics sink
+     *
+     * @return null if disabled
+     */
+    NavigationMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * count every requestLayout() of the bar like NavigationItemView does, including the ones of children
+     */
+    @Override
+    public void requestLayout() {
+        super.requestLayout();
+        //requestLayout() may be called by super constructor before metrics are set
+        NavigationMetrics metrics = mMetrics;
+        if (metrics != null) {
+            metrics.onLayoutRequested(NO_ID);
+        }
+    }
+
+    /**
+     * set OnNavigationItemSelectedListener
+     *
+     * @param onNavigationItemSelectedListener
+     */
+    public void setOnNavigationItemSelectedListener(OnNavigationItemSelectedListener onNavigationItemSelectedListener) {
+        mOnNavigationItemSelectedListener = onNavigationItemSelectedListener;
+    }
+
+    /**
+     * saved checked item id and badges of items with badge
+     */
+    static class SavedState extends AbsSavedState {
+
+        int checkedItemId;
+        int[] badgeItemIds;
+        /**
+         * BADGE_DOT or a number > 0
+         */
+        int[] badges;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        SavedState(Parcel source, ClassLoader loader) {
+            super(source, loader);
+            checkedItemId = source.readInt();
+            badgeItemIds = source.createIntArray();
+            badges = source.createIntArray();
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            super.writeToParcel(dest, flags);
+            dest.writeInt(checkedItemId);
+            dest.writeIntArray(badgeItemIds);
+            dest.writeIntArray(badges);
+        }
+
+        public static final Creator<SavedState> CREATOR = new ClassLoaderCreator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel source, ClassLoader loader) {
+                return new SavedState(source, loader);
+            }
+
+            @Override
+            public SavedState createFromParcel(Parcel source) {
+                return new SavedState(source, null);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    /**
+     * set OnNavigationItemPressedListener to start loading the content of an item when it is pressed
+     *
+     * @param onNavigationItemPressedListener
+     */
+    public void setOnNavigationItemPressedListener(OnNavigationItemPressedListener onNavigationItemPressedListener) {
+        mOnNavigationItemPressedListener = onNavigationItemPressedListener;
+    }
+
+    /**
+     * add a listener called inside dispatchItemSelected() along with the one of setOnNavigationItemSelectedListener()
+     *
+     * @param onNavigationItemSelectedListener
+     */
+    public void addOnNavigationItemSelectedListener(OnNavigationItemSelectedListener onNavigationItemSelectedListener) {
+        addOnNavigationItemSelectedListener(onNavigationItemSelectedListener, DISPATCH_SYNCHRONOUS);
+    }
+
+    /**
+     * add a listener called on main thread by the policy
+     *
+     * @param onNavigationItemSelectedListener
+     * @param dispatchPolicy                   DISPATCH_SYNCHRONOUS or DISPATCH_AFTER_FRAME,
+     *                                         the checked state is drawn without waiting for listeners of the latter
+     */
+    public void addOnNavigationItemSelectedListener(OnNavigationItemSelectedListener onNavigationItemSelectedListener
+            , @DispatchPolicy int dispatchPolicy) {
+        addSelectedListenerEntry(new SelectedListenerEntry(onNavigationItemSelectedListener
+                , dispatchPolicy == DISPATCH_AFTER_FRAME ? DISPATCH_AFTER_FRAME : DISPATCH_SYNCHRONOUS, null));
+    }
+
+    /**
+     * add a listener called on the executor, e.g. for analytics or logging which doesn't need main thread.
+     * The events are delivered one by one in order.
+     *
+     * @param onNavigationItemSelectedListener
+     * @param executor
+     */
+    public void addOnNavigationItemSelectedListener(OnNavigationItemSelectedListener onNavigationItemSelectedListener
+            , Executor executor) {
+        addSelectedListenerEntry(new SelectedListenerEntry(onNavigationItemSelectedListener, DISPATCH_EXECUTOR, executor));
+    }
+
+    private void addSelectedListenerEntry(SelectedListenerEntry entry) {
+        if (entry.listener == null) {
+            return;
+        }
+        int length = mSelectedListenerEntries.length;
+        SelectedListenerEntry[] entries = new SelectedListenerEntry[length + 1];
+        System.arraycopy(mSelectedListenerEntries, 0, entries, 0, length);
+        entries[length] = entry;
+        mSelectedListenerEntries = entries;
+    }
+
+    /**
+     * remove a listener added by addOnNavigationItemSelectedListener(), its events not delivered yet are dropped
+     *
+     * @param onNavigationItemSelectedListener
+     */
+    public void removeOnNavigationItemSelectedListener(OnNavigationItemSelectedListener onNavigationItemSelectedListener) {
+        SelectedListenerEntry[] entries = mSelectedListenerEntries;
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].listener != onNavigationItemSelectedListener) {
+                continue;
+            }
+            entries[i].remove();
+            SelectedListenerEntry[] newEntries = new SelectedListenerEntry[entries.length - 1];
+            System.arraycopy(entries, 0, newEntries, 0, i);
+            System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+            mSelectedListenerEntries = newEntries;
+            return;
+        }
+    }
+
+    /**
+     * set OnNavigationItemReselectedListener, called when the checked item is selected again, e.g. to scroll to top
+     *
+     * @param onNavigationItemReselectedListener
+     */
+    public void setOnNavigationItemReselectedListener(OnNavigationItemReselectedListener onNavigationItemReselectedListener) {
+        mOnNavigationItemReselectedListener = onNavigationItemReselectedListener;
+    }
+
+    /**
+     * record transitions between items and predict the likely next items after each selection, null to disable.
+     * With a selection coalescing window only the selection dispatched for a burst is recorded.
+     *
+     * @param tabTransitionPredictor
+     */
+    public void setTabTransitionPredictor(TabTransitionPredictor tabTransitionPredictor) {
+        mTabTransitionPredictor = tabTransitionPredictor;
+    }
+
+    /**
+     * dispatch item pressed by ACTION_DOWN
+     *
+     * @param itemId
+     */
+    void dispatchItemPressed(int itemId) {
+        if (mOnNavigationItemPressedListener != null) {
+            mOnNavigationItemPressedListener.onItemPressed(itemId);
+        }
+    }
+
+    /**
+     * dispatch the press of item doesn't end with a click
+     *
+     * @param itemId
+     */
+    void dispatchItemPressCancelled(int itemId) {
+        if (mOnNavigationItemPressedListener != null) {
+            mOnNavigationItemPressedListener.onItemPressCancelled(itemId);
+        }
+    }
+
+    public interface OnItemsPreparedListener {
+
+        /**
+         * called on background thread to set up a new item which is not attached yet
+         *
+         * @param navigationItemView
+         * @param position
+         */
+        void onPrepareItem(NavigationItemView navigationItemView, int position);
+
+        /**
+         * called on main thread when all items are prepared
+         *
+         * @param navigationItemViews
+         */
+        void onItemsPrepared(List<NavigationItemView> navigationItemViews);
+    }
+
+    public interface OnNavigationItemSelectedListener {
+        void onItemSelected(int itemId);
 
         void onItemReleaseSelected(int itemId);
     }
+
+    public interface OnNavigationItemReselectedListener {
+        void onItemReselected(int itemId);
+    }
+
+    /**
+     * a press ends with either a click of the item or onItemPressCancelled()
+     */
+    public interface OnNavigationItemPressedListener {
+
+        /**
+         * called on ACTION_DOWN before the click completes, start loading the content of item here
+         *
+         * @param itemId
+         */
+        void onItemPressed(int itemId);
+
+        /**
+         * the press doesn't end with a click, e.g. the finger moves out or the gesture is cancelled
+         *
+         * @param itemId
+         */
+        void onItemPressCancelled(int itemId);
+    }
 }
@@ -0,0 +1,234 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.content.res.ColorStateList;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+/**
+ * Draw state of a NavigationItemView when BottomNavigationView is in flat mode.
+ * It keeps everything the inflated item layout would show and draws it straight onto
+ * the canvas of FlatNavigationView.
+ */
+class FlatItemState {
+
+    private static final int[] STATE_CHECKED = new int[]{android.R.attr.state_selected};
+    private static final int[] STATE_UNCHECKED = new int[]{};
+
+    /**
+     * content layout params
+     */
+    int gravity = BottomNavigationView.ITEM_GRAVITY_MODE_CENTER;
+    int marginBottom;
+    int drawableGap;
+
+    /**
+     * title
+     */
+    CharSequence title;
+    TextPaint titlePaint;
+    ColorStateList titleColor;
+    boolean titleBold;
+    /**
+     * show title bold when checked, by fake bold paint if textSelectedFakeBold
+     */
+    boolean textSelectedBold;
+    boolean textSelectedFakeBold;
+
+    /**
+     * icon, set by setIcon() and setIconBackground() to keep the drawable callback
+     */
+    Drawable icon;
+    Drawable iconBackground;
+    int iconSize;
+    int iconPaddingLeft, iconPaddingTop, iconPaddingRight, iconPaddingBottom;
+
+    /**
+     * number badge shared with the NavigationItemView
+     */
+    BadgeDrawable badge;
+
+    boolean checked;
+
+    /**
+     * FlatNavigationView which redraws the item when its drawables are invalidated
+     */
+    private Drawable.Callback mCallback;
+
+    /**
+     * cache of the ellipsized title for the current cell width
+     */
+    private CharSequence mDisplayTitle;
+    private int mDisplayTitleWidth = -1;
+    private Paint.FontMetricsInt mTitleFontMetrics = new Paint.FontMetricsInt();
+
+    FlatItemState(ItemStyle itemStyle, BadgeDrawable badgeDrawable) {
+        marginBottom = itemStyle.bottomPadding == 0 ? itemStyle.defaultBottomPadding : itemStyle.bottomPadding;
+        drawableGap = itemStyle.drawablePadding;
+        iconSize = itemStyle.iconSize;
+
+        titlePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        titlePaint.setTextSize(itemStyle.textSize);
+        titleColor = itemStyle.textColor;
+        textSelectedBold = itemStyle.textSelectedBold;
+        textSelectedFakeBold = itemStyle.textSelectedFakeBold;
+
+        badge = badgeDrawable;
+    }
+
+    /**
+     * set the callback of badge, icon and icon background, e.g. for animated drawables
+     *
+     * @param callback
+     */
+    void setCallback(Drawable.Callback callback) {
+        mCallback = callback;
+        badge.setCallback(callback);
+        if (icon != null) {
+            icon.setCallback(callback);
+        }
+        if (iconBackground != null) {
+            iconBackground.setCallback(callback);
+        }
+    }
+
+    void setIcon(Drawable drawable) {
+        icon = replaceDrawable(icon, drawable);
+    }
+
+    void setIconBackground(Drawable drawable) {
+        iconBackground = replaceDrawable(iconBackground, drawable);
+    }
+
+    private Drawable replaceDrawable(Drawable lastDrawable, Drawable drawable) {
+        if (lastDrawable != null && lastDrawable != drawable) {
+            lastDrawable.setCallback(null);
+        }
+        if (drawable != null) {
+            drawable.setCallback(mCallback);
+        }
+        return drawable;
+    }
+
+    /**
+     * is the drawable drawn by this item
+     *
+     * @param who
+     * @return
+     */
+    boolean hasDrawable(Drawable who) {
+        return who == badge || who == icon || who == iconBackground;
+    }
+
+    /**
+     * mark title changed to measure again in next draw
+     */
+    void invalidateTitle() {
+        mDisplayTitleWidth = -1;
+    }
+
+    /**
+     * update checked state of drawables and paint
+     *
+     * @param isCheck
+     */
+    void setChecked(boolean isCheck) {
+        checked = isCheck;
+        int[] state = isCheck ? STATE_CHECKED : STATE_UNCHECKED;
+        if (icon != null) {
+            icon.setState(state);
+        }
+        if (iconBackground != null) {
+            iconBackground.setState(state);
+        }
+        boolean bold = textSelectedBold && isCheck;
+        if (titleBold != bold) {
+            titleBold = bold;
+            if (textSelectedFakeBold) {
+                //same advances as regular, the ellipsized title is still valid
+                titlePaint.setFakeBoldText(bold);
+            } else {
+                titlePaint.setTypeface(bold ? Typeface.DEFAULT_BOLD : Typeface.DEFAULT);
+                invalidateTitle();
+            }
+        }
+    }
+
+    /**
+     * draw the item into the cell
+     *
+     * @param canvas
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     */
+    void draw(Canvas canvas, int left, int top, int right, int bottom) {
+        int[] state = checked ? STATE_CHECKED : STATE_UNCHECKED;
+        int cellWidth = right - left;
+
+        titlePaint.getFontMetricsInt(mTitleFontMetrics);
+        int titleHeight = TextUtils.isEmpty(title) ? 0 : mTitleFontMetrics.bottom - mTitleFontMetrics.top;
+        int contentHeight = iconSize + drawableGap + titleHeight;
+        int contentTop;
+        if (gravity == BottomNavigationView.ITEM_GRAVITY_MODE_BOTTOM) {
+            contentTop = bottom - marginBottom - contentHeight;
+        } else {
+            contentTop = top + (bottom - top - contentHeight) / 2;
+        }
+
+        //icon
+        int iconLeft = left + (cellWidth - iconSize) / 2;
+        if (iconBackground != null) {
+            iconBackground.setBounds(iconLeft, contentTop, iconLeft + iconSize, contentTop + iconSize);
+            iconBackground.draw(canvas);
+        }
+        if (icon != null) {
+            drawIcon(canvas, iconLeft + iconPaddingLeft, contentTop + iconPaddingTop
+                    , iconLeft + iconSize - iconPaddingRight, contentTop + iconSize - iconPaddingBottom);
+        }
+
+        //title
+        if (titleHeight > 0) {
+            if (mDisplayTitleWidth != cellWidth) {
+                mDisplayTitle = TextUtils.ellipsize(title, titlePaint, cellWidth, TextUtils.TruncateAt.END);
+                mDisplayTitleWidth = cellWidth;
+            }
+            titlePaint.setColor(titleColor.getColorForState(state, titleColor.getDefaultColor()));
+            float titleWidth = titlePaint.measureText(mDisplayTitle, 0, mDisplayTitle.length());
+            int baseline = contentTop + iconSize + drawableGap - mTitleFontMetrics.top;
+            canvas.drawText(mDisplayTitle, 0, mDisplayTitle.length()
+                    , left + (cellWidth - titleWidth) / 2f, baseline, titlePaint);
+        }
+
+        //number
+        if (badge.isShown()) {
+            badge.layout(left, top, right);
+            badge.draw(canvas);
+        }
+    }
+
+    /**
+     * draw icon fit center into the box like ImageView does
+     */
+    private void drawIcon(Canvas canvas, int left, int top, int right, int bottom) {
+        int boxWidth = right - left;
+        int boxHeight = bottom - top;
+        int intrinsicWidth = icon.getIntrinsicWidth();
+        int intrinsicHeight = icon.getIntrinsicHeight();
+        if (intrinsicWidth <= 0 || intrinsicHeight <= 0) {
+            icon.setBounds(left, top, right, bottom);
+        } else {
+            float scale = Math.min((float) boxWidth / intrinsicWidth, (float) boxHeight / intrinsicHeight);
+            int width = (int) (intrinsicWidth * scale);
+            int height = (int) (intrinsicHeight * scale);
+            int dx = left + (boxWidth - width) / 2;
+            int dy = top + (boxHeight - height) / 2;
+            icon.setBounds(dx, dy, dx + width, dy + height);
+        }
+        icon.draw(canvas);
+    }
+}
@@ -0,0 +1,349 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import java.util.List;
+
+/**
+ * Single view to draw all items of BottomNavigationView in flat mode.
+ * Items are exposed to accessibility services as virtual views.
+ */
+class FlatNavigationView extends View {
+
+    private BottomNavigationView mParentView;
+    private List<NavigationItemView> mItemList;
+
+    private FlatAccessibilityHelper mAccessibilityHelper;
+    private Rect mTempRect = new Rect();
+
+    /**
+     * cached slots of items by position, split by weights and ordered by layout direction like item views
+     */
+    private int[] mItemWidths;
+    private int[] mItemLefts;
+    private float[] mItemWeights;
+    private int mCachedContentWidth = -1;
+    private int mCachedItemCount = -1;
+    private boolean isCachedRtl;
+    private boolean isSlotsDirty = true;
+
+    /**
+     * the item position pressed by ACTION_DOWN
+     */
+    private int mPressedPosition = -1;
+    private int mTouchSlop;
+    private float mDownX, mDownY;
+
+    FlatNavigationView(BottomNavigationView bottomNavigationView, List<NavigationItemView> itemList) {
+        super(bottomNavigationView.getContext());
+        mParentView = bottomNavigationView;
+        mItemList = itemList;
+        mTouchSlop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+        mAccessibilityHelper = new FlatAccessibilityHelper(this);
+        ViewCompat.setAccessibilityDelegate(this, mAccessibilityHelper);
+        setFocusable(true);
+    }
+
+    /**
+     * call when items are added or removed
+     */
+    void notifyItemsChanged() {
+        //drawables of items, e.g. animated badge backgrounds, redraw their item in this view
+        int count = mItemList.size();
+        for (int i = 0; i < count; i++) {
+            mItemList.get(i).getFlatItemState().setCallback(this);
+        }
+        isSlotsDirty = true;
+        mAccessibilityHelper.invalidateRoot();
+        invalidate();
+    }
+
+    /**
+     * call when draw state of an item is changed
+     *
+     * @param position
+     */
+    void notifyItemChanged(int position) {
+        if (position != -1) {
+            mAccessibilityHelper.invalidateVirtualView(position);
+        }
+        invalidate();
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return getItemPosition(who) != -1 || super.verifyDrawable(who);
+    }
+
+    @Override
+    public void invalidateDrawable(@NonNull Drawable drawable) {
+        int position = getItemPosition(drawable);
+        if (position == -1) {
+            super.invalidateDrawable(drawable);
+            return;
+        }
+        //only the item of the drawable is drawn again
+        getItemBounds(position, mTempRect);
+        invalidate(mTempRect.left, mTempRect.top, mTempRect.right, mTempRect.bottom);
+    }
+
+    /**
+     * get position of the item which draws the drawable
+     *
+     * @param who
+     * @return -1 if not found
+     */
+    private int getItemPosition(Drawable who) {
+        int count = mItemList.size();
+        for (int i = 0; i < count; i++) {
+            if (mItemList.get(i).getFlatItemState().hasDrawable(who)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int height = getResources().getDimensionPixelSize(R.dimen.bottom_navigation_view_height);
+        setMeasuredDimension(getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec)
+                , resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        NavigationMetrics metrics = mParentView.getMetrics();
+        int count = mItemList.size();
+        for (int i = 0; i < count; i++) {
+            NavigationItemView navigationItemView = mItemList.get(i);
+            long startNanos = metrics == null ? 0 : metrics.beginSection(NavigationMetricsSink.SECTION_DRAW_ITEM);
+            try {
+                getItemBounds(i, mTempRect);
+                navigationItemView.getFlatItemState()
+                        .draw(canvas, mTempRect.left, mTempRect.top, mTempRect.right, mTempRect.bottom);
+            } finally {
+                if (metrics != null) {
+                    metrics.endSection(NavigationMetricsSink.SECTION_DRAW_ITEM, navigationItemView.getId(), startNanos);
+                }
+            }
+        }
+        mParentView.onItemDrawn(mParentView.getCurrentSelectedItemId());
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mDownX = event.getX();
+                mDownY = event.getY();
+                cancelPress();
+                mPressedPosition = getItemPositionAt(mDownX);
+                if (mPressedPosition != -1) {
+                    //report the press before the click completes, so the content can be loaded early
+                    mParentView.dispatchItemPressed(mItemList.get(mPressedPosition).getId());
+                }
+                return mPressedPosition != -1;
+            case MotionEvent.ACTION_MOVE:
+                if (mPressedPosition != -1 && (Math.abs(event.getX() - mDownX) > mTouchSlop
+                        || Math.abs(event.getY() - mDownY) > mTouchSlop)
+                        && getItemPositionAt(event.getX()) != mPressedPosition) {
+                    cancelPress();
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (mPressedPosition != -1 && getItemPositionAt(event.getX()) == mPressedPosition) {
+                    int position = mPressedPosition;
+                    mPressedPosition = -1;
+                    performItemClick(position, event.getEventTime());
+                } else {
+                    cancelPress();
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                cancelPress();
+                return true;
+            default:
+                return super.onTouchEvent(event);
+        }
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return mAccessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return mAccessibilityHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        mAccessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    /**
+     * report the press of ACTION_DOWN doesn't end with a click
+     */
+    private void cancelPress() {
+        if (mPressedPosition == -1) {
+            return;
+        }
+        int position = mPressedPosition;
+        mPressedPosition = -1;
+        if (position < mItemList.size()) {
+            mParentView.dispatchItemPressCancelled(mItemList.get(position).getId());
+        }
+    }
+
+    /**
+     * click item by position
+     *
+     * @param position
+     * @param tapUpTime event time of the ACTION_UP, 0 if not clicked by a tap
+     */
+    private void performItemClick(int position, long tapUpTime) {
+        playSoundEffect(SoundEffectConstants.CLICK);
+        mParentView.dispatchItemSelected(mItemList.get(position).getId(), tapUpTime);
+        mAccessibilityHelper.sendEventForVirtualView(position
+                , AccessibilityEvent.TYPE_VIEW_CLICKED);
+    }
+
+    /**
+     * get item position by x, -1 if none
+     *
+     * @param x
+     * @return
+     */
+    private int getItemPositionAt(float x) {
+        int count = mItemList.size();
+        int contentWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        if (count == 0 || contentWidth <= 0) {
+            return -1;
+        }
+        updateItemSlots();
+        float contentX = x - getPaddingLeft();
+        for (int i = 0; i < count; i++) {
+            if (contentX >= mItemLefts[i] && contentX < mItemLefts[i] + mItemWidths[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * get bounds of item by position
+     *
+     * @param position
+     * @param outRect
+     */
+    void getItemBounds(int position, Rect outRect) {
+        updateItemSlots();
+        outRect.left = getPaddingLeft() + mItemLefts[position];
+        outRect.right = outRect.left + mItemWidths[position];
+        outRect.top = getPaddingTop();
+        outRect.bottom = getHeight() - getPaddingBottom();
+    }
+
+    /**
+     * split the width by weights of items like BottomNavigationView does for item views,
+     * then place them from left to right, or from right to left in RTL.
+     * The result is cached while width, item count, weights and layout direction are the same.
+     */
+    private void updateItemSlots() {
+        int count = mItemList.size();
+        int contentWidth = Math.max(0, getWidth() - getPaddingLeft() - getPaddingRight());
+        boolean isRtl = ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL;
+        if (!isSlotsDirty && contentWidth == mCachedContentWidth && count == mCachedItemCount && isRtl == isCachedRtl) {
+            return;
+        }
+        if (mItemWidths == null || mItemWidths.length < count) {
+            mItemWidths = new int[count];
+            mItemLefts = new int[count];
+            mItemWeights = new float[count];
+        }
+        for (int i = 0; i < count; i++) {
+            mItemWeights[i] = BottomNavigationView.getSlotWeight(mItemList.get(i).getWidthWeight());
+        }
+        BottomNavigationView.splitWidth(contentWidth, mItemWeights, count, mItemWidths);
+        int left = 0;
+        for (int i = 0; i < count; i++) {
+            int position = isRtl ? count - 1 - i : i;
+            mItemLefts[position] = left;
+            left += mItemWidths[position];
+        }
+        mCachedContentWidth = contentWidth;
+        mCachedItemCount = count;
+        isCachedRtl = isRtl;
+        isSlotsDirty = false;
+    }
+
+    /**
+     * expose items as virtual views
+     */
+    private class FlatAccessibilityHelper extends ExploreByTouchHelper {
+
+        FlatAccessibilityHelper(View host) {
+            super(host);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int position = getItemPositionAt(x);
+            return position == -1 ? INVALID_ID : position;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            int count = mItemList.size();
+            for (int i = 0; i < count; i++) {
+                virtualViewIds.add(i);
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+            if (virtualViewId >= mItemList.size()) {
+                //item was removed, report an empty node
+                node.setContentDescription("");
+                node.setBoundsInParent(new Rect());
+                return;
+            }
+            FlatItemState itemState = mItemList.get(virtualViewId).getFlatItemState();
+            node.setContentDescription(itemState.title == null ? "" : itemState.title);
+            node.setClassName(NavigationItemView.class.getName());
+            node.setCheckable(true);
+            node.setChecked(itemState.checked);
+            node.setSelected(itemState.checked);
+            node.setClickable(true);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            getItemBounds(virtualViewId, mTempRect);
+            node.setBoundsInParent(mTempRect);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            if (action == AccessibilityNodeInfoCompat.ACTION_CLICK && virtualViewId < mItemList.size()) {
+                performItemClick(virtualViewId, 0);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+/**
+ * One bitmap holding the icons of all items of a bar in both unchecked and checked states,
+ * each item draws its cell by AtlasIconDrawable, so there is only one bitmap to upload for the bar.
+ * Cells are square of the largest icon size, the cell of item i is 2 * i for unchecked and 2 * i + 1 for checked.
+ * Each icon is fit into its icon size with its own aspect ratio at the top left of the cell.
+ */
+final class IconAtlas {
+
+    private static final int[] STATE_CHECKED = new int[]{android.R.attr.state_selected};
+    private static final int[] STATE_UNCHECKED = new int[]{};
+
+    /**
+     * cells are wrapped into rows, so the bitmap is not wider than the max texture size of most devices
+     */
+    private static final int MAX_WIDTH = 2048;
+
+    private final Bitmap mBitmap;
+    private final int mCellSize;
+    private final int mColumnCount;
+    /**
+     * sizes of the fitted icons by position
+     */
+    private final int[] mIconWidths;
+    private final int[] mIconHeights;
+
+    private IconAtlas(Bitmap bitmap, int cellSize, int columnCount, int[] iconWidths, int[] iconHeights) {
+        mBitmap = bitmap;
+        mCellSize = cellSize;
+        mColumnCount = columnCount;
+        mIconWidths = iconWidths;
+        mIconHeights = iconHeights;
+    }
+
+    /**
+     * draw the icons into an atlas
+     *
+     * @param icons     icons of items, null if an item has no icon
+     * @param iconSizes icon sizes of items
+     * @param count
+     * @return null if there is no icon or the bitmap can't be created
+     */
+    static IconAtlas build(Drawable[] icons, int[] iconSizes, int count) {
+        int cellSize = 0;
+        for (int i = 0; i < count; i++) {
+            if (icons[i] != null) {
+                cellSize = Math.max(cellSize, iconSizes[i]);
+            }
+        }
+        if (cellSize <= 0) {
+            return null;
+        }
+        int[] iconWidths = new int[count];
+        int[] iconHeights = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (icons[i] != null) {
+                fitIcon(icons[i], iconSizes[i], iconWidths, iconHeights, i);
+            }
+        }
+        int cellCount = count * 2;
+        int columnCount = Math.max(1, Math.min(cellCount, MAX_WIDTH / cellSize));
+        int rowCount = (cellCount + columnCount - 1) / columnCount;
+        Bitmap bitmap;
+        try {
+            bitmap = Bitmap.createBitmap(columnCount * cellSize, rowCount * cellSize, Bitmap.Config.ARGB_8888);
+        } catch (OutOfMemoryError e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        IconAtlas iconAtlas = new IconAtlas(bitmap, cellSize, columnCount, iconWidths, iconHeights);
+        Canvas canvas = new Canvas(bitmap);
+        Rect cellRect = new Rect();
+        for (int i = 0; i < count; i++) {
+            if (icons[i] != null) {
+                iconAtlas.drawIcon(canvas, icons[i], i, cellRect);
+            }
+        }
+        return iconAtlas;
+    }
+
+    /**
+     * draw both states of the icon into its cells, the icon is still shown by its item,
+     * so a copy is drawn if it has constant state, otherwise its state and bounds are restored after drawing
+     *
+     * @param canvas
+     * @param icon
+     * @param position
+     * @param cellRect
+     */
+    private void drawIcon(Canvas canvas, Drawable icon, int position, Rect cellRect) {
+        Drawable.ConstantState constantState = icon.getConstantState();
+        Drawable drawable = constantState == null ? icon : constantState.newDrawable();
+        Rect bounds = drawable.copyBounds();
+        //the array of drawable is replaced by setState(), so it keeps the current state
+        int[] state = drawable.getState();
+        getCellRect(position, false, cellRect);
+        drawable.setState(STATE_UNCHECKED);
+        drawable.setBounds(cellRect);
+        drawable.draw(canvas);
+        getCellRect(position, true, cellRect);
+        drawable.setState(STATE_CHECKED);
+        drawable.setBounds(cellRect);
+        drawable.draw(canvas);
+        if (drawable == icon) {
+            icon.setState(state);
+            icon.setBounds(bounds);
+        }
+    }
+
+    /**
+     * fit the icon into a square of icon size like ImageView does, icons without intrinsic size fill it
+     *
+     * @param icon
+     * @param iconSize
+     * @param outWidths
+     * @param outHeights
+     * @param position
+     */
+    private static void fitIcon(Drawable icon, int iconSize, int[] outWidths, int[] outHeights, int position) {
+        int intrinsicWidth = icon.getIntrinsicWidth();
+        int intrinsicHeight = icon.getIntrinsicHeight();
+        int width = iconSize;
+        int height = iconSize;
+        if (intrinsicWidth > 0 && intrinsicHeight > 0) {
+            if (intrinsicWidth > intrinsicHeight) {
+                height = Math.max(1, Math.round((float) iconSize * intrinsicHeight / intrinsicWidth));
+            } else {
+                width = Math.max(1, Math.round((float) iconSize * intrinsicWidth / intrinsicHeight));
+            }
+        }
+        outWidths[position] = width;
+        outHeights[position] = height;
+    }
+
+    Bitmap getBitmap() {
+        return mBitmap;
+    }
+
+    int getIconWidth(int position) {
+        return mIconWidths[position];
+    }
+
+    int getIconHeight(int position) {
+        return mIconHeights[position];
+    }
+
+    /**
+     * get the rect of an icon in the atlas
+     *
+     * @param position position of item
+     * @param checked
+     * @param outRect
+     */
+    void getCellRect(int position, boolean checked, Rect outRect) {
+        int cell = position * 2 + (checked ? 1 : 0);
+        outRect.left = cell % mColumnCount * mCellSize;
+        outRect.top = cell / mColumnCount * mCellSize;
+        outRect.right = outRect.left + mIconWidths[position];
+        outRect.bottom = outRect.top + mIconHeights[position];
+    }
+}
@@ -0,0 +1,71 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import androidx.core.graphics.BitmapCompat;
+
+/**
+ * LRU cache of icon bitmaps shared by all bars, the key is the source with the icon size.
+ * Items wrap the cached bitmaps in their own drawables, so the bitmaps are shared but not the drawable states.
+ */
+final class IconCache {
+
+    private static final int MAX_CACHE_SIZE = 8 * 1024 * 1024;
+
+    private static LruCache<String, Bitmap> sBitmapCache;
+
+    private IconCache() {
+    }
+
+    private static synchronized LruCache<String, Bitmap> getBitmapCache() {
+        if (sBitmapCache == null) {
+            int maxSize = (int) Math.min(MAX_CACHE_SIZE, Runtime.getRuntime().maxMemory() / 32);
+            sBitmapCache = new LruCache<String, Bitmap>(maxSize) {
+                @Override
+                protected int sizeOf(String key, Bitmap bitmap) {
+                    return BitmapCompat.getAllocationByteCount(bitmap);
+                }
+            };
+        }
+        return sBitmapCache;
+    }
+
+    /**
+     * get cached icon
+     *
+     * @param source
+     * @param size
+     * @return null if not cached
+     */
+    static Bitmap get(String source, int size) {
+        return getBitmapCache().get(getKey(source, size));
+    }
+
+    /**
+     * get cached icon or load it by loader, call it on a background thread
+     *
+     * @param iconLoader
+     * @param context
+     * @param source
+     * @param size
+     * @return null if failed
+     */
+    static Bitmap load(IconLoader iconLoader, Context context, String source, int size) {
+        String key = getKey(source, size);
+        Bitmap bitmap = getBitmapCache().get(key);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        bitmap = iconLoader.loadIcon(context, source, size);
+        if (bitmap != null) {
+            getBitmapCache().put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    private static String getKey(String source, int size) {
+        return size + "@" + source;
+    }
+}
@@ -0,0 +1,21 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+/**
+ * Loader of icons for NavigationItemView.loadIcon(), see BottomNavigationView.setIconLoader().
+ * Loaded bitmaps are kept in an LRU cache shared by all bars.
+ */
+public interface IconLoader {
+
+    /**
+     * load icon, it is called on a background thread
+     *
+     * @param context    application context
+     * @param source     the source passed to NavigationItemView.loadIcon()
+     * @param targetSize the icon size of item, the bitmap should be decoded to fit in it
+     * @return null if failed
+     */
+    Bitmap loadIcon(Context context, String source, int targetSize);
+}
@@ -0,0 +1,117 @@
+package com.arjinmc.bottomnavigationview;
+
+import androidx.annotation.DrawableRes;
+
+/**
+ * Description of a navigation item for BottomNavigationView.setItems().
+ * Items are matched by id, so the same id keeps the same NavigationItemView.
+ */
+public class ItemSpec {
+
+    private int mId;
+    private String mTitle;
+    @DrawableRes
+    private int mIconResId;
+    private Integer mNumber;
+    private boolean mShowDot;
+
+    public ItemSpec(int id, String title, @DrawableRes int iconResId) {
+        mId = id;
+        mTitle = title;
+        mIconResId = iconResId;
+    }
+
+    public int getId() {
+        return mId;
+    }
+
+    public String getTitle() {
+        return mTitle;
+    }
+
+    @DrawableRes
+    public int getIconResId() {
+        return mIconResId;
+    }
+
+    public Integer getNumber() {
+        return mNumber;
+    }
+
+    /**
+     * set number, null or number <= 0 won't be shown
+     *
+     * @param number
+     */
+    public void setNumber(Integer number) {
+        mNumber = number;
+    }
+
+    public boolean isShowDot() {
+        return mShowDot;
+    }
+
+    /**
+     * set show dot
+     *
+     * @param showDot
+     */
+    public void setShowDot(boolean showDot) {
+        mShowDot = showDot;
+    }
+
+    /**
+     * copy the spec, so later changes of the origin won't affect the bound one
+     *
+     * @return
+     */
+    ItemSpec copy() {
+        ItemSpec itemSpec = new ItemSpec(mId, mTitle, mIconResId);
+        itemSpec.mNumber = mNumber;
+        itemSpec.mShowDot = mShowDot;
+        return itemSpec;
+    }
+
+    /**
+     * is title same with other spec
+     *
+     * @param other
+     * @return
+     */
+    boolean isSameTitle(ItemSpec other) {
+        return mTitle == null ? other.mTitle == null : mTitle.equals(other.mTitle);
+    }
+
+    /**
+     * is badge same with other spec
+     *
+     * @param other
+     * @return
+     */
+    boolean isSameBadge(ItemSpec other) {
+        return mShowDot == other.mShowDot
+                && (mNumber == null ? other.mNumber == null : mNumber.equals(other.mNumber));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ItemSpec)) {
+            return false;
+        }
+        ItemSpec other = (ItemSpec) obj;
+        return mId == other.mId && mIconResId == other.mIconResId && isSameTitle(other) && isSameBadge(other);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mId;
+        result = 31 * result + (mTitle == null ? 0 : mTitle.hashCode());
+        result = 31 * result + mIconResId;
+        result = 31 * result + (mNumber == null ? 0 : mNumber.hashCode());
+        result = 31 * result + (mShowDot ? 1 : 0);
+        return result;
+    }
+}
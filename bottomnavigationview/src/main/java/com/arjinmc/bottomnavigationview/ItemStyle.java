@@ -0,0 +1,270 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable style of NavigationItemView resolved from the attributes of BottomNavigationView.
+ * Bars with the same theme, style and configuration share one instance, also across Activities,
+ * a new item applies it in one step when it is built.
+ * It keeps only resolved values and the constant states of drawables, so it never refers to a context.
+ */
+final class ItemStyle {
+
+    /**
+     * max count of styles kept for one style resource, e.g. for Activities with different themes
+     */
+    private static final int MAX_CACHED_STYLE_COUNT = 4;
+
+    /**
+     * styles by style resource id, 0 for bars without style, the most recently used one is the last
+     */
+    private static final SparseArray<List<ItemStyle>> sStyleCache = new SparseArray<>();
+
+    final int itemGravityMode;
+    final boolean flatMode;
+    final boolean iconAtlas;
+    /**
+     * scroll items and only materialize the visible ones, see BottomNavigationView.setScrollMode()
+     */
+    final boolean scrollMode;
+    /**
+     * min width of items in scroll mode
+     */
+    final int scrollItemWidth;
+    /**
+     * animate checked state by render properties, see BottomNavigationView.setSelectionAnimationEnabled()
+     */
+    final boolean selectionAnimation;
+    final int animationDuration;
+    /**
+     * translation y of unchecked title in selection animation
+     */
+    final float selectionTitleTranslation;
+    final int indicatorHeight;
+    private final Drawable.ConstantState mIndicatorState;
+    /**
+     * the indicator without constant state, only kept by uncached styles
+     */
+    private final Drawable mIndicator;
+
+    final int itemHeight;
+    final int iconSize;
+    /**
+     * tint of icon by checked state, null if icons are not tinted
+     */
+    final ColorStateList iconTint;
+    final ColorStateList textColor;
+    final float textSize;
+    final boolean textSelectedBold;
+    final boolean textSelectedFakeBold;
+    final int drawablePadding;
+    final int bottomPadding;
+    /**
+     * the bottom padding used when the padding of item is set to 0
+     */
+    final int defaultBottomPadding;
+
+    final ColorStateList numberTextColor;
+    final float numberTextSize;
+    final int numberSize;
+    final int numberMarginLeft, numberMarginTop;
+    private final Drawable.ConstantState mNumberBackgroundState;
+    /**
+     * the number background without constant state, only kept by uncached styles
+     */
+    private final Drawable mNumberBackground;
+
+    /**
+     * the configuration the dimensions are resolved with
+     */
+    private final Configuration mConfiguration;
+    /**
+     * copy of the theme the style is resolved with, created from the application so no Activity is kept,
+     * null for uncached styles
+     */
+    private Resources.Theme mTheme;
+
+    private ItemStyle(Context context, AttributeSet attrs) {
+        Resources resources = context.getResources();
+        mConfiguration = new Configuration(resources.getConfiguration());
+
+        TypedArray lAttrs = context.obtainStyledAttributes(attrs, R.styleable.BottomNavigationView);
+        itemGravityMode = lAttrs.getInt(R.styleable.BottomNavigationView_BottomNavigationView_tabItemGravity, 0);
+        flatMode = lAttrs.getBoolean(R.styleable.BottomNavigationView_BottomNavigationView_tabFlatMode, false);
+        iconAtlas = lAttrs.getBoolean(R.styleable.BottomNavigationView_BottomNavigationView_tabIconAtlas, false);
+        scrollMode = lAttrs.getBoolean(R.styleable.BottomNavigationView_BottomNavigationView_tabScrollMode, false);
+        scrollItemWidth = lAttrs.getDimensionPixelSize(R.styleable.BottomNavigationView_BottomNavigationView_tabScrollItemWidth
+                , resources.getDimensionPixelSize(R.dimen.bottom_navigation_view_scroll_item_width));
+        selectionAnimation = lAttrs.getBoolean(R.styleable.BottomNavigationView_BottomNavigationView_tabSelectionAnimation, false);
+        animationDuration = resources.getInteger(android.R.integer.config_shortAnimTime);
+        selectionTitleTranslation = resources.getDimension(R.dimen.bottom_navigation_view_item_selection_title_translation);
+        Drawable lIndicator = lAttrs.getDrawable(R.styleable.BottomNavigationView_BottomNavigationView_tabIndicator);
+        mIndicatorState = lIndicator == null ? null : lIndicator.getConstantState();
+        mIndicator = mIndicatorState == null ? lIndicator : null;
+        indicatorHeight = lAttrs.getDimensionPixelSize(R.styleable.BottomNavigationView_BottomNavigationView_tabIndicatorHeight
+                , resources.getDimensionPixelSize(R.dimen.bottom_navigation_view_indicator_height));
+        itemHeight = resources.getDimensionPixelSize(R.dimen.bottom_navigation_view_height);
+        //icon
+        iconSize = lAttrs.getDimensionPixelSize(R.styleable.BottomNavigationView_BottomNavigationView_tabIconSize
+                , resources.getDimensionPixelSize(R.dimen.bottom_navigation_view_item_icon_size));
+        iconTint = lAttrs.getColorStateList(R.styleable.BottomNavigationView_BottomNavigationView_tabIconTint);
+        //tab text
+        ColorStateList lTextColor = lAttrs.getColorStateList(R.styleable.BottomNavigationView_BottomNavigationView_tabTextColor);
+        textColor = lTextColor != null ? lTextColor : ColorStateList.valueOf(
+                ContextCompat.getColor(context, R.color.bottom_navigation_view_item_default_text_color));
+        textSize = lAttrs.getDimension(R.styleable.BottomNavigationView_BottomNavigationView_tabTextSize
+                , resources.getDimension(R.dimen.bottom_navigation_view_item_text_size));
+        textSelectedBold = lAttrs.getBoolean(R.styleable.BottomNavigationView_BottomNavigationView_tabTextSelectedBoldStyle, false);
+        textSelectedFakeBold = lAttrs.getBoolean(R.styleable.BottomNavigationView_BottomNavigationView_tabTextSelectedFakeBold, false);
+
+        //number text
+        ColorStateList lNumberTextColor = lAttrs.getColorStateList(R.styleable.BottomNavigationView_BottomNavigationView_tabNumberTextColor);
+        numberTextColor = lNumberTextColor != null ? lNumberTextColor : ColorStateList.valueOf(0xFFFFFFFF);
+        numberTextSize = lAttrs.getDimension(R.styleable.BottomNavigationView_BottomNavigationView_tabNumberTextSize
+                , resources.getDimension(R.dimen.bottom_navigation_view_item_number_text_size));
+        numberSize = resources.getDimensionPixelSize(R.dimen.bottom_navigation_view_item_number_icon_size);
+        Drawable lNumberBackground = lAttrs.getDrawable(R.styleable.BottomNavigationView_BottomNavigationView_tabNumberBackground);
+        if (lNumberBackground == null) {
+            lNumberBackground = ContextCompat.getDrawable(context, R.drawable.bottom_navigation_view_bg_item_number);
+        }
+        mNumberBackgroundState = lNumberBackground == null ? null : lNumberBackground.getConstantState();
+        mNumberBackground = mNumberBackgroundState == null ? lNumberBackground : null;
+        numberMarginLeft = lAttrs.getDimensionPixelSize(R.styleable.BottomNavigationView_BottomNavigationView_tabNumberMarginLeft
+                , resources.getDimensionPixelSize(R.dimen.bottom_navigation_view_item_number_margin_left));
+        numberMarginTop = lAttrs.getDimensionPixelSize(R.styleable.BottomNavigationView_BottomNavigationView_tabNumberMarginTop
+                , resources.getDimensionPixelSize(R.dimen.bottom_navigation_view_item_number_margin_top));
+
+        drawablePadding = (int) lAttrs.getDimension(R.styleable.BottomNavigationView_BottomNavigationView_tabDrawablePadding
+                , resources.getDimension(R.dimen.bottom_navigation_view_item_drawable_margin_top));
+        defaultBottomPadding = resources.getDimensionPixelSize(R.dimen.bottom_navigation_view_item_margin_bottom);
+        bottomPadding = lAttrs.getDimensionPixelSize(R.styleable.BottomNavigationView_BottomNavigationView_tabBottomPadding
+                , defaultBottomPadding);
+        lAttrs.recycle();
+    }
+
+    /**
+     * get the style of bar, it is shared by bars with the same theme, style and configuration.
+     * These styles are not cached and resolved for each bar:
+     * attributes set in the layout of bar directly, since attribute sets of layouts can't be compared;
+     * styles with drawables without constant state, since they can't be shared;
+     * all styles before Android 6.0, since themes can't be compared there.
+     *
+     * @param context
+     * @param attrs
+     * @return
+     */
+    static ItemStyle obtain(Context context, AttributeSet attrs) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M
+                || (attrs != null && hasStyleableAttributes(attrs))) {
+            return new ItemStyle(context, attrs);
+        }
+
+        int styleResId = attrs == null ? 0 : attrs.getStyleAttribute();
+        Resources.Theme theme = context.getTheme();
+        Configuration configuration = context.getResources().getConfiguration();
+        synchronized (sStyleCache) {
+            List<ItemStyle> styleList = sStyleCache.get(styleResId);
+            int size = styleList == null ? 0 : styleList.size();
+            for (int i = size - 1; i >= 0; i--) {
+                ItemStyle itemStyle = styleList.get(i);
+                //themes are equal if the same styles are applied to them in the same order
+                if (itemStyle.mConfiguration.equals(configuration) && itemStyle.mTheme.equals(theme)) {
+                    if (i != size - 1) {
+                        styleList.remove(i);
+                        styleList.add(itemStyle);
+                    }
+                    return itemStyle;
+                }
+            }
+        }
+
+        ItemStyle itemStyle = new ItemStyle(context, attrs);
+        if (!itemStyle.isCacheable()) {
+            return itemStyle;
+        }
+        itemStyle.mTheme = context.getApplicationContext().getResources().newTheme();
+        itemStyle.mTheme.setTo(theme);
+        synchronized (sStyleCache) {
+            List<ItemStyle> styleList = sStyleCache.get(styleResId);
+            if (styleList == null) {
+                styleList = new ArrayList<>(1);
+                sStyleCache.put(styleResId, styleList);
+            } else if (styleList.size() == MAX_CACHED_STYLE_COUNT) {
+                styleList.remove(0);
+            }
+            styleList.add(itemStyle);
+        }
+        return itemStyle;
+    }
+
+    /**
+     * can the style be shared, all drawables can be created from constant states
+     *
+     * @return
+     */
+    private boolean isCacheable() {
+        return mIndicator == null && mNumberBackground == null;
+    }
+
+    /**
+     * are attributes of BottomNavigationView set in the attribute set directly
+     *
+     * @param attrs
+     * @return
+     */
+    private static boolean hasStyleableAttributes(AttributeSet attrs) {
+        int attributeCount = attrs.getAttributeCount();
+        for (int i = 0; i < attributeCount; i++) {
+            int attrResId = attrs.getAttributeNameResource(i);
+            for (int styleableAttr : R.styleable.BottomNavigationView) {
+                if (attrResId == styleableAttr) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * create number background for an item, each badge needs its own state and bounds
+     *
+     * @param resources
+     * @return
+     */
+    Drawable newNumberBackground(Resources resources) {
+        return newDrawable(mNumberBackgroundState, mNumberBackground, resources);
+    }
+
+    /**
+     * create selection indicator for a bar
+     *
+     * @param resources
+     * @return null if there is no indicator
+     */
+    Drawable newIndicator(Resources resources) {
+        return newDrawable(mIndicatorState, mIndicator, resources);
+    }
+
+    /**
+     * @param constantState
+     * @param drawable      the drawable without constant state of an uncached style, it is used by one bar only
+     * @param resources
+     * @return
+     */
+    private static Drawable newDrawable(Drawable.ConstantState constantState, Drawable drawable, Resources resources) {
+        return constantState == null ? drawable : constantState.newDrawable(resources);
+    }
+}
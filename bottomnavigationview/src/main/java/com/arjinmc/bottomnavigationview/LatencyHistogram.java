@@ -0,0 +1,98 @@
+package com.arjinmc.bottomnavigationview;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies with fixed buckets, it can be recorded and polled from any thread.
+ * See BottomNavigationView.setSelectionLatencyHistograms().
+ */
+public final class LatencyHistogram {
+
+    /**
+     * upper bounds(inclusive) of buckets in milliseconds, the last bucket has no upper bound
+     */
+    private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = new long[]{
+            1, 2, 4, 8, 12, 16, 24, 32, 48, 64, 100, 150, 200, 300, 500, 1000
+    };
+    private static final long[] BUCKET_UPPER_BOUNDS_NANOS = new long[BUCKET_UPPER_BOUNDS_MILLIS.length];
+    private static final int BUCKET_COUNT = BUCKET_UPPER_BOUNDS_MILLIS.length + 1;
+
+    static {
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++) {
+            BUCKET_UPPER_BOUNDS_NANOS[i] = TimeUnit.MILLISECONDS.toNanos(BUCKET_UPPER_BOUNDS_MILLIS[i]);
+        }
+    }
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong mTotalNanos = new AtomicLong();
+
+    /**
+     * get count of buckets
+     *
+     * @return
+     */
+    public static int getBucketCount() {
+        return BUCKET_COUNT;
+    }
+
+    /**
+     * get upper bound(inclusive) of bucket
+     *
+     * @param bucket
+     * @return Long.MAX_VALUE for the last bucket
+     */
+    public static long getBucketUpperBoundNanos(int bucket) {
+        return bucket < BUCKET_UPPER_BOUNDS_NANOS.length ? BUCKET_UPPER_BOUNDS_NANOS[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * record a latency
+     *
+     * @param latencyNanos
+     */
+    public void record(long latencyNanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_UPPER_BOUNDS_NANOS.length && latencyNanos > BUCKET_UPPER_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        mCounts.incrementAndGet(bucket);
+        mTotalNanos.addAndGet(latencyNanos);
+    }
+
+    /**
+     * get count of bucket
+     *
+     * @param bucket
+     * @return
+     */
+    public long getCount(int bucket) {
+        return mCounts.get(bucket);
+    }
+
+    /**
+     * get sum of all recorded latencies
+     *
+     * @return
+     */
+    public long getTotalNanos() {
+        return mTotalNanos.get();
+    }
+
+    /**
+     * move counts of all buckets into counts and reset them, so each recorded latency is polled once.
+     * The snapshot is not atomic: buckets and the sum are reset one by one, so a latency recorded
+     * concurrently may be in the polled counts but not in the returned sum, or the reverse.
+     * The rest of it is polled by the next drainTo(), so the counts and sums of all polls add up exactly.
+     *
+     * @param counts the length should be at least getBucketCount()
+     * @return sum of the polled latencies
+     */
+    public long drainTo(long[] counts) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = mCounts.getAndSet(i, 0);
+        }
+        return mTotalNanos.getAndSet(0);
+    }
+}
@@ -0,0 +1,145 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Default IconLoader to decode bitmap icons from files, assets and drawable resources.
+ * Sources are file paths, "file://" uris, "asset:///" paths made by fromAsset()
+ * and "android.resource://" uris made by fromResource().
+ */
+public class LocalIconLoader implements IconLoader {
+
+    private static final String SCHEME_FILE = "file://";
+    private static final String SCHEME_ASSET = "asset:///";
+    private static final String SCHEME_RESOURCE = "android.resource://";
+
+    /**
+     * get source of a bitmap drawable resource, vector and xml drawables can't be decoded
+     *
+     * @param context
+     * @param drawableResId
+     * @return
+     */
+    public static String fromResource(Context context, int drawableResId) {
+        return SCHEME_RESOURCE + context.getPackageName() + "/" + drawableResId;
+    }
+
+    /**
+     * get source of a file in assets
+     *
+     * @param assetPath
+     * @return
+     */
+    public static String fromAsset(String assetPath) {
+        return SCHEME_ASSET + assetPath;
+    }
+
+    @Override
+    public Bitmap loadIcon(Context context, String source, int targetSize) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        decode(context, source, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, targetSize);
+        options.inJustDecodeBounds = false;
+        Bitmap bitmap = decode(context, source, options);
+        if (bitmap == null) {
+            return null;
+        }
+        return scaleToFit(bitmap, targetSize);
+    }
+
+    /**
+     * decode by options, the density of resources is not applied as the bitmap is scaled to the icon size
+     *
+     * @param context
+     * @param source
+     * @param options
+     * @return
+     */
+    private Bitmap decode(Context context, String source, BitmapFactory.Options options) {
+        if (source.startsWith(SCHEME_RESOURCE)) {
+            int drawableResId;
+            try {
+                drawableResId = Integer.parseInt(source.substring(source.lastIndexOf('/') + 1));
+            } catch (NumberFormatException e) {
+                e.printStackTrace();
+                return null;
+            }
+            options.inScaled = false;
+            return BitmapFactory.decodeResource(context.getResources(), drawableResId, options);
+        }
+
+        InputStream inputStream = null;
+        try {
+            if (source.startsWith(SCHEME_ASSET)) {
+                inputStream = context.getAssets().open(source.substring(SCHEME_ASSET.length()));
+            } else if (source.startsWith(SCHEME_FILE)) {
+                inputStream = new FileInputStream(source.substring(SCHEME_FILE.length()));
+            } else {
+                inputStream = new FileInputStream(source);
+            }
+            return BitmapFactory.decodeStream(inputStream, null, options);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * the largest power of 2 which keeps the decoded size not smaller than target size
+     *
+     * @param width
+     * @param height
+     * @param targetSize
+     * @return
+     */
+    private static int calculateInSampleSize(int width, int height, int targetSize) {
+        int inSampleSize = 1;
+        if (targetSize <= 0) {
+            return inSampleSize;
+        }
+        while (Math.max(width, height) / (inSampleSize * 2) >= targetSize) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * scale down the bitmap to fit in target size with the same aspect ratio
+     *
+     * @param bitmap
+     * @param targetSize
+     * @return
+     */
+    private static Bitmap scaleToFit(Bitmap bitmap, int targetSize) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        if (targetSize <= 0 || Math.max(width, height) <= targetSize) {
+            return bitmap;
+        }
+        float scale = (float) targetSize / Math.max(width, height);
+        Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, Math.max(1, Math.round(width * scale))
+                , Math.max(1, Math.round(height * scale)), true);
+        if (scaledBitmap != bitmap) {
+            bitmap.recycle();
+        }
+        return scaledBitmap;
+    }
+}
@@ -0,0 +1,58 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Shared threads for work BottomNavigationView moves off the main thread.
+ */
+final class NavigationExecutors {
+
+    private static ExecutorService sBackgroundExecutor;
+    private static Handler sMainHandler;
+
+    private NavigationExecutors() {
+    }
+
+    /**
+     * get the single background thread executor
+     *
+     * @return
+     */
+    static synchronized ExecutorService background() {
+        if (sBackgroundExecutor == null) {
+            sBackgroundExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, "BottomNavigationView-background");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sBackgroundExecutor;
+    }
+
+    /**
+     * get handler of main thread
+     *
+     * @return
+     */
+    static synchronized Handler main() {
+        if (sMainHandler == null) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+        }
+        return sMainHandler;
+    }
+}
@@ -0,0 +1,421 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.view.View;
+
+import androidx.annotation.IdRes;
+import androidx.annotation.NonNull;
+import androidx.collection.LruCache;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Host of tab contents for BottomNavigationView. The fragment of an item is created when the item is selected
+ * for the first time, then switching tabs only shows and hides fragments, so their views are kept.
+ * At most getMaxCachedFragmentCount() fragments are kept, the least recently used hidden ones are removed first.
+ * Register it by Context.registerComponentCallbacks() or call onTrimMemory() from Activity,
+ * hidden fragments are removed when memory is low.
+ * When an item is pressed, its fragment is created and added hidden before the click completes,
+ * so the view of it is inflated while the finger is down.
+ */
+public class NavigationFragmentController implements BottomNavigationView.OnNavigationItemSelectedListener
+        , BottomNavigationView.OnNavigationItemPressedListener, ComponentCallbacks2 {
+
+    private static final int DEFAULT_MAX_CACHED_FRAGMENT_COUNT = 3;
+    private static final String TAG_PREFIX = "NavigationFragmentController:";
+
+    private FragmentManager mFragmentManager;
+    @IdRes
+    private int mContainerId;
+    private FragmentFactory mFragmentFactory;
+    private BottomNavigationView.OnNavigationItemSelectedListener mOnNavigationItemSelectedListener;
+    private BottomNavigationView.OnNavigationItemPressedListener mOnNavigationItemPressedListener;
+    private boolean isPrefetchEnabled = true;
+
+    /**
+     * item id to fragment in access order, the shown fragment is always the most recently used one
+     */
+    private FragmentCache mFragmentCache;
+    private int mShownItemId = View.NO_ID;
+    /**
+     * the fragment added hidden by a press, it is not in the cache until the item is selected
+     */
+    private Fragment mPrefetchedFragment;
+    private int mPrefetchedItemId = View.NO_ID;
+
+    /**
+     * the transaction of current switch or trim, evicted fragments are removed in it
+     */
+    private FragmentTransaction mTransaction;
+    /**
+     * the cache and fields before the current transaction, they are restored if it fails to commit
+     */
+    private Map<Integer, Fragment> mCacheSnapshot;
+    private int mSnapshotMaxCachedFragmentCount;
+    private int mSnapshotShownItemId;
+    private Fragment mSnapshotPrefetchedFragment;
+    private int mSnapshotPrefetchedItemId;
+
+    /**
+     * @param fragmentManager use getSupportFragmentManager() of Activity or getChildFragmentManager() of Fragment
+     * @param containerId     the container of fragments
+     * @param fragmentFactory create fragment of item
+     */
+    public NavigationFragmentController(FragmentManager fragmentManager, @IdRes int containerId
+            , FragmentFactory fragmentFactory) {
+        mFragmentManager = fragmentManager;
+        mContainerId = containerId;
+        mFragmentFactory = fragmentFactory;
+        mFragmentCache = new FragmentCache(DEFAULT_MAX_CACHED_FRAGMENT_COUNT);
+    }
+
+    /**
+     * set max count of fragments kept including the shown one, default is 3
+     *
+     * @param maxCachedFragmentCount should be > 0
+     */
+    public void setMaxCachedFragmentCount(int maxCachedFragmentCount) {
+        if (maxCachedFragmentCount <= 0) {
+            return;
+        }
+        beginTransaction();
+        keepShownFragment();
+        mFragmentCache.resize(maxCachedFragmentCount);
+        commitTransaction();
+    }
+
+    /**
+     * get max count of fragments kept
+     *
+     * @return
+     */
+    public int getMaxCachedFragmentCount() {
+        return mFragmentCache.maxSize();
+    }
+
+    /**
+     * listener called after the fragment is switched
+     *
+     * @param onNavigationItemSelectedListener
+     */
+    public void setOnNavigationItemSelectedListener(
+            BottomNavigationView.OnNavigationItemSelectedListener onNavigationItemSelectedListener) {
+        mOnNavigationItemSelectedListener = onNavigationItemSelectedListener;
+    }
+
+    /**
+     * listener called after the press is handled
+     *
+     * @param onNavigationItemPressedListener
+     */
+    public void setOnNavigationItemPressedListener(
+            BottomNavigationView.OnNavigationItemPressedListener onNavigationItemPressedListener) {
+        mOnNavigationItemPressedListener = onNavigationItemPressedListener;
+    }
+
+    /**
+     * set whether to create the fragment of item when it is pressed, default is true
+     *
+     * @param prefetchEnabled
+     */
+    public void setPrefetchEnabled(boolean prefetchEnabled) {
+        isPrefetchEnabled = prefetchEnabled;
+        if (!prefetchEnabled) {
+            removePrefetchedFragment();
+        }
+    }
+
+    public boolean isPrefetchEnabled() {
+        return isPrefetchEnabled;
+    }
+
+    /**
+     * listen to the bar and show the fragment of its selected item.
+     * The fragments restored by FragmentManager after the Activity is recreated are reused.
+     *
+     * @param bottomNavigationView
+     */
+    public void attach(BottomNavigationView bottomNavigationView) {
+        bottomNavigationView.setOnNavigationItemSelectedListener(this);
+        bottomNavigationView.setOnNavigationItemPressedListener(this);
+        restoreFragments();
+        if (bottomNavigationView.getItemCount() > 0) {
+            showFragment(bottomNavigationView.getCurrentSelectedItemId());
+        }
+    }
+
+    /**
+     * get the fragment of item if it is created and kept
+     *
+     * @param itemId
+     * @return null if not found
+     */
+    public Fragment getFragment(int itemId) {
+        return mFragmentManager.findFragmentByTag(getTag(itemId));
+    }
+
+    @Override
+    public void onItemSelected(int itemId) {
+        showFragment(itemId);
+        if (mOnNavigationItemSelectedListener != null) {
+            mOnNavigationItemSelectedListener.onItemSelected(itemId);
+        }
+    }
+
+    @Override
+    public void onItemReleaseSelected(int itemId) {
+        //the fragment is hidden when the next one is shown in the same transaction
+        if (mOnNavigationItemSelectedListener != null) {
+            mOnNavigationItemSelectedListener.onItemReleaseSelected(itemId);
+        }
+    }
+
+    @Override
+    public void onItemPressed(int itemId) {
+        if (isPrefetchEnabled) {
+            prefetchFragment(itemId);
+        }
+        if (mOnNavigationItemPressedListener != null) {
+            mOnNavigationItemPressedListener.onItemPressed(itemId);
+        }
+    }
+
+    @Override
+    public void onItemPressCancelled(int itemId) {
+        if (mPrefetchedItemId == itemId) {
+            removePrefetchedFragment();
+        }
+        if (mOnNavigationItemPressedListener != null) {
+            mOnNavigationItemPressedListener.onItemPressCancelled(itemId);
+        }
+    }
+
+    /**
+     * add the fragment of item hidden if it is not kept, so its view is inflated before the click completes
+     *
+     * @param itemId
+     */
+    private void prefetchFragment(int itemId) {
+        //check the cache without get(), a press must not make a hidden fragment more recently used than the shown one
+        if (mPrefetchedItemId == itemId || itemId == mShownItemId || mFragmentCache.snapshot().containsKey(itemId)) {
+            return;
+        }
+        removePrefetchedFragment();
+        Fragment fragment = mFragmentFactory.createFragment(itemId);
+        beginTransaction();
+        mTransaction.add(mContainerId, fragment, getTag(itemId)).hide(fragment);
+        mPrefetchedFragment = fragment;
+        mPrefetchedItemId = itemId;
+        commitTransaction();
+    }
+
+    /**
+     * remove the prefetched fragment which is not selected
+     */
+    private void removePrefetchedFragment() {
+        if (mPrefetchedFragment == null) {
+            return;
+        }
+        beginTransaction();
+        mTransaction.remove(mPrefetchedFragment);
+        mPrefetchedFragment = null;
+        mPrefetchedItemId = View.NO_ID;
+        commitTransaction();
+    }
+
+    /**
+     * show fragment of item and hide the last shown one, the fragment is created if it is not kept
+     *
+     * @param itemId
+     */
+    private void showFragment(int itemId) {
+        if (mShownItemId == itemId) {
+            return;
+        }
+        beginTransaction();
+        if (mShownItemId != View.NO_ID) {
+            Fragment shownFragment = mFragmentCache.get(mShownItemId);
+            if (shownFragment != null) {
+                mTransaction.hide(shownFragment);
+            }
+        }
+
+        Fragment fragment = mFragmentCache.get(itemId);
+        if (fragment == null && mPrefetchedItemId == itemId) {
+            fragment = mPrefetchedFragment;
+            mPrefetchedFragment = null;
+            mPrefetchedItemId = View.NO_ID;
+        }
+        if (fragment == null) {
+            fragment = mFragmentFactory.createFragment(itemId);
+            mTransaction.add(mContainerId, fragment, getTag(itemId));
+        } else {
+            mTransaction.show(fragment);
+        }
+        mShownItemId = itemId;
+        //the least recently used fragment is removed in the same transaction if the cache is full
+        mFragmentCache.put(itemId, fragment);
+        mTransaction.setPrimaryNavigationFragment(fragment);
+        commitTransaction();
+    }
+
+    /**
+     * put the fragments restored by FragmentManager into cache, the visible one is the shown one
+     */
+    private void restoreFragments() {
+        if (mFragmentCache.size() > 0) {
+            return;
+        }
+        List<Fragment> fragments = mFragmentManager.getFragments();
+        Fragment visibleFragment = null;
+        beginTransaction();
+        for (Fragment fragment : fragments) {
+            String tag = fragment.getTag();
+            if (tag == null || !tag.startsWith(TAG_PREFIX)) {
+                continue;
+            }
+            if (!fragment.isHidden() && visibleFragment == null) {
+                visibleFragment = fragment;
+                continue;
+            }
+            mFragmentCache.put(getItemId(fragment), fragment);
+        }
+        if (visibleFragment != null) {
+            mShownItemId = getItemId(visibleFragment);
+            mFragmentCache.put(mShownItemId, visibleFragment);
+        }
+        commitTransaction();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        int maxCount;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            //only the shown fragment is kept
+            maxCount = 1;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            maxCount = Math.max(1, mFragmentCache.size() / 2);
+        } else {
+            return;
+        }
+        trimFragments(maxCount);
+    }
+
+    @Override
+    public void onLowMemory() {
+        trimFragments(1);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    /**
+     * remove the least recently used hidden fragments until there are at most maxCount fragments
+     *
+     * @param maxCount
+     */
+    private void trimFragments(int maxCount) {
+        if (mFragmentCache.size() <= maxCount) {
+            return;
+        }
+        beginTransaction();
+        keepShownFragment();
+        mFragmentCache.trimToSize(maxCount);
+        commitTransaction();
+    }
+
+    /**
+     * make the shown fragment the most recently used one, so trimming never evicts it
+     */
+    private void keepShownFragment() {
+        if (mShownItemId != View.NO_ID) {
+            mFragmentCache.get(mShownItemId);
+        }
+    }
+
+    private void beginTransaction() {
+        if (mTransaction == null) {
+            mTransaction = mFragmentManager.beginTransaction().setReorderingAllowed(true);
+            mCacheSnapshot = mFragmentCache.snapshot();
+            mSnapshotMaxCachedFragmentCount = mFragmentCache.maxSize();
+            mSnapshotShownItemId = mShownItemId;
+            mSnapshotPrefetchedFragment = mPrefetchedFragment;
+            mSnapshotPrefetchedItemId = mPrefetchedItemId;
+        }
+    }
+
+    /**
+     * commit now, so the cache and FragmentManager always have the same fragments.
+     * Tab switches after state saved are still applied, the state of them may be lost like commitAllowingStateLoss().
+     * If the commit fails, e.g. FragmentManager is executing transactions or destroyed, the cache and fields
+     * are restored to the ones before the transaction and the exception is thrown.
+     */
+    private void commitTransaction() {
+        FragmentTransaction transaction = mTransaction;
+        Map<Integer, Fragment> cacheSnapshot = mCacheSnapshot;
+        mTransaction = null;
+        mCacheSnapshot = null;
+        if (transaction.isEmpty()) {
+            return;
+        }
+        try {
+            transaction.commitNowAllowingStateLoss();
+        } catch (IllegalStateException e) {
+            //nothing of the transaction is applied, the evictions are not recorded without mTransaction
+            mFragmentCache.evictAll();
+            mFragmentCache.resize(mSnapshotMaxCachedFragmentCount);
+            //the snapshot is ordered from the least recently used one
+            for (Map.Entry<Integer, Fragment> entry : cacheSnapshot.entrySet()) {
+                mFragmentCache.put(entry.getKey(), entry.getValue());
+            }
+            mShownItemId = mSnapshotShownItemId;
+            mPrefetchedFragment = mSnapshotPrefetchedFragment;
+            mPrefetchedItemId = mSnapshotPrefetchedItemId;
+            throw e;
+        }
+    }
+
+    private static String getTag(int itemId) {
+        return TAG_PREFIX + itemId;
+    }
+
+    private static int getItemId(Fragment fragment) {
+        return Integer.parseInt(fragment.getTag().substring(TAG_PREFIX.length()));
+    }
+
+    /**
+     * removes evicted fragments in the current transaction
+     */
+    private class FragmentCache extends LruCache<Integer, Fragment> {
+
+        FragmentCache(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, Integer itemId, Fragment oldValue, Fragment newValue) {
+            if (evicted && mTransaction != null) {
+                mTransaction.remove(oldValue);
+            }
+        }
+    }
+
+    public interface FragmentFactory {
+
+        /**
+         * create fragment of item, called when the item is selected and its fragment is not kept
+         *
+         * @param itemId
+         * @return
+         */
+        Fragment createFragment(int itemId);
+    }
+}
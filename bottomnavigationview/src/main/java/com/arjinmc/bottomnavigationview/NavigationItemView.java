@@ -2,13 +2,18 @@ package com.arjinmc.bottomnavigationview;
 
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.graphics.Typeface;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
-import android.os.Build;
-import android.text.TextUtils;
+import android.graphics.drawable.StateListDrawable;
 import android.util.TypedValue;
 import android.view.Gravity;
+import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
@@ -18,8 +23,10 @@ import androidx.annotation.ColorInt;
 import androidx.annotation.ColorRes;
 import androidx.annotation.DimenRes;
 import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
 import androidx.annotation.StringRes;
 import androidx.core.content.ContextCompat;
+import androidx.core.graphics.drawable.DrawableCompat;
 
 /**
  * Item for Navigation
@@ -28,12 +35,27 @@ import androidx.core.content.ContextCompat;
  */
 public class NavigationItemView extends FrameLayout {
 
+    private static final int[] STATE_CHECKED = new int[]{android.R.attr.state_selected};
+    private static final int[] STATE_UNCHECKED = new int[]{};
+    /**
+     * text size / ratio is the padding reserved for fake bold text
+     */
+    private static final float FAKE_BOLD_PADDING_RATIO = 24f;
+    /**
+     * scale of unchecked icon and alpha of unchecked title in selection animation
+     */
+    private static final float UNCHECKED_ICON_SCALE = 0.86f;
+    private static final float UNCHECKED_TITLE_ALPHA = 0.7f;
+
     private BottomNavigationView mParentView;
 
     private LinearLayout mLlContent;
     private ImageView mIvIcon;
     private TextView mTvTitle;
-    private TextView mTvNumber;
+    /**
+     * the number is drawn over the item, not a child view
+     */
+    private BadgeDrawable mBadgeDrawable;
 
     /**
      * margin bottom for linear layout content
@@ -44,16 +66,92 @@ public class NavigationItemView extends FrameLayout {
      * above max number n will be shown as "n+"
      */
     private int mMaxNumber = 99;
+    /**
+     * show numbers >= 1000 as "1.2k", "12k" or "1.2m"
+     */
+    private boolean isCompactNumber;
+    /**
+     * the badge shown, a number > 0, BottomNavigationView.BADGE_DOT or 0 for none
+     */
+    private int mBadgeValue;
     /**
      * mark if selected to show text bold style
      */
     private boolean isTextSelectedBold;
+    /**
+     * use fake bold paint for selected bold text, so selection won't change the text layout
+     */
+    private boolean isTextSelectedFakeBold;
     private int mCurrentGravity;
 
+    /**
+     * draw state when parent is in flat mode, otherwise is null
+     */
+    private FlatItemState mFlatItemState;
+
+    /**
+     * the width of item in the bar is split by weight
+     */
+    private float mWidthWeight = 1;
+
+    /**
+     * the spec bound by BottomNavigationView.setItems()
+     */
+    private ItemSpec mItemSpec;
+
+    /**
+     * the style shared with other items of parent
+     */
+    private ItemStyle mItemStyle;
+
+    /**
+     * event time of the last ACTION_UP which may click the item, 0 if none
+     */
+    private long mTouchUpTime;
+    /**
+     * the press reported by ACTION_DOWN has not ended by a click or cancel yet
+     */
+    private boolean isPressPending;
+
+    /**
+     * the click is posted by ACTION_UP, so this runs after the click if there is one
+     */
+    private final Runnable mEndPressRunnable = new Runnable() {
+        @Override
+        public void run() {
+            cancelPendingPress();
+        }
+    };
+
+    /**
+     * increased when icon is changed, so the result of an older loadIcon() is dropped
+     */
+    private int mIconRequestId;
+
+    /**
+     * tint of icon by checked state, so one icon is shared by both states
+     */
+    private ColorStateList mIconTint;
+
+    /**
+     * the icon set to item, null if it is set by resource id to ImageView directly.
+     * It is drawn into the icon atlas of parent in atlas mode.
+     */
+    private Drawable mIconDrawable;
+
     public NavigationItemView(Context context, BottomNavigationView bottomNavigationView) {
         super(context);
         mParentView = bottomNavigationView;
-        init();
+        NavigationMetrics metrics = getMetrics();
+        long startNanos = metrics == null ? 0 : metrics.beginSection(NavigationMetricsSink.SECTION_INFLATE_ITEM);
+        try {
+            init();
+        } finally {
+            if (metrics != null) {
+                //the id is set after the item is created
+                metrics.endSection(NavigationMetricsSink.SECTION_INFLATE_ITEM, NO_ID, startNanos);
+            }
+        }
     }
 
     private void init() {
@@ -67,17 +165,287 @@ public class NavigationItemView extends FrameLayout {
             }
         }
 
+        ItemStyle itemStyle = mParentView.getItemStyle();
+        mItemStyle = itemStyle;
+        mMarginBottom = itemStyle.bottomPadding;
+        mCurrentGravity = mParentView.getCurrentItemGravity();
+        isTextSelectedBold = itemStyle.textSelectedBold;
+        isTextSelectedFakeBold = itemStyle.textSelectedFakeBold;
+        mIconTint = itemStyle.iconTint;
+        createBadgeDrawable(itemStyle);
+
+        if (mParentView.isFlatMode()) {
+            mFlatItemState = new FlatItemState(itemStyle, mBadgeDrawable);
+            mFlatItemState.gravity = mCurrentGravity;
+            return;
+        }
+
         setOnClickListener(new OnClickListener() {
             @Override
             public void onClick(View v) {
-                mParentView.dispatchItemSelected(getId());
+                long touchUpTime = mTouchUpTime;
+                mTouchUpTime = 0;
+                isPressPending = false;
+                mParentView.dispatchItemSelected(getId(), touchUpTime);
             }
         });
-        inflate(getContext(), R.layout.bottom_navigation_view_item_navigation_view, this);
-        mLlContent = findViewById(R.id.bottom_navigation_view_ll_content);
-        mIvIcon = findViewById(R.id.bottom_navigation_view_iv_icon);
-        mTvTitle = findViewById(R.id.bottom_navigation_view_tv_title);
-        mTvNumber = findViewById(R.id.bottom_navigation_view_tv_number);
+        createContentViews(itemStyle);
+    }
+
+    /**
+     * build the item hierarchy in code instead of inflating a layout,
+     * so there is no xml parsing and it is safe to run on a background thread.
+     * The style is applied to the layout params before adding, so there are no layout param changes after.
+     *
+     * @param itemStyle
+     */
+    private void createContentViews(ItemStyle itemStyle) {
+        Context context = getContext();
+        setMinimumHeight(itemStyle.itemHeight);
+
+        mLlContent = new LinearLayout(context);
+        mLlContent.setId(R.id.bottom_navigation_view_ll_content);
+        mLlContent.setOrientation(LinearLayout.VERTICAL);
+        mLlContent.setGravity(Gravity.CENTER);
+        FrameLayout.LayoutParams contentParams = new FrameLayout.LayoutParams(LayoutParams.MATCH_PARENT
+                , LayoutParams.WRAP_CONTENT);
+        applyLayoutGravity(contentParams, mCurrentGravity);
+        addView(mLlContent, contentParams);
+
+        mIvIcon = new ImageView(context);
+        mIvIcon.setId(R.id.bottom_navigation_view_iv_icon);
+        mIvIcon.setImageResource(android.R.color.darker_gray);
+        mLlContent.addView(mIvIcon, new LinearLayout.LayoutParams(itemStyle.iconSize, itemStyle.iconSize));
+
+        mTvTitle = new TextView(context);
+        mTvTitle.setId(R.id.bottom_navigation_view_tv_title);
+        mTvTitle.setTextColor(itemStyle.textColor);
+        mTvTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, itemStyle.textSize);
+        updateTitleBoldPadding();
+        LinearLayout.LayoutParams titleParams = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT
+                , LayoutParams.WRAP_CONTENT);
+        titleParams.topMargin = itemStyle.drawablePadding;
+        mLlContent.addView(mTvTitle, titleParams);
+
+        mBadgeDrawable.setCallback(this);
+        if (mParentView.isSelectionAnimationEnabled()) {
+            applyCheckedProperties(false, false);
+        }
+    }
+
+    /**
+     * create number badge with the item style
+     *
+     * @param itemStyle
+     */
+    private void createBadgeDrawable(ItemStyle itemStyle) {
+        mBadgeDrawable = new BadgeDrawable();
+        mBadgeDrawable.setTextColor(itemStyle.numberTextColor);
+        mBadgeDrawable.setTextSize(itemStyle.numberTextSize);
+        mBadgeDrawable.setBackground(itemStyle.newNumberBackground(getResources()));
+        mBadgeDrawable.setSize(itemStyle.numberSize, itemStyle.numberSize);
+        mBadgeDrawable.setMargin(itemStyle.numberMarginLeft, itemStyle.numberMarginTop);
+    }
+
+    /**
+     * redraw the number badge, no layout is needed
+     */
+    private void invalidateBadge() {
+        if (mFlatItemState != null) {
+            invalidateFlatItem();
+            return;
+        }
+        mBadgeDrawable.layout(0, 0, getWidth());
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mBadgeDrawable.layout(0, 0, w);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        NavigationMetrics metrics = getMetrics();
+        long startNanos = metrics == null ? 0 : metrics.beginSection(NavigationMetricsSink.SECTION_MEASURE_ITEM);
+        try {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        } finally {
+            if (metrics != null) {
+                metrics.endSection(NavigationMetricsSink.SECTION_MEASURE_ITEM, getId(), startNanos);
+            }
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        NavigationMetrics metrics = getMetrics();
+        long startNanos = metrics == null ? 0 : metrics.beginSection(NavigationMetricsSink.SECTION_LAYOUT_ITEM);
+        try {
+            super.onLayout(changed, left, top, right, bottom);
+        } finally {
+            if (metrics != null) {
+                metrics.endSection(NavigationMetricsSink.SECTION_LAYOUT_ITEM, getId(), startNanos);
+            }
+        }
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        NavigationMetrics metrics = getMetrics();
+        long startNanos = metrics == null ? 0 : metrics.beginSection(NavigationMetricsSink.SECTION_DRAW_ITEM);
+        try {
+            super.dispatchDraw(canvas);
+            mBadgeDrawable.draw(canvas);
+        } finally {
+            if (metrics != null) {
+                metrics.endSection(NavigationMetricsSink.SECTION_DRAW_ITEM, getId(), startNanos);
+            }
+        }
+        if (mParentView != null) {
+            mParentView.onItemDrawn(getId());
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mTouchUpTime = 0;
+                //report the press before the click completes, so the content can be loaded early
+                cancelPendingPress();
+                isPressPending = true;
+                mParentView.dispatchItemPressed(getId());
+                break;
+            case MotionEvent.ACTION_UP:
+                mTouchUpTime = event.getEventTime();
+                break;
+            default:
+                break;
+        }
+        boolean handled = super.onTouchEvent(event);
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_UP:
+                if (isPressPending && !post(mEndPressRunnable)) {
+                    cancelPendingPress();
+                }
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                cancelPendingPress();
+                break;
+            default:
+                break;
+        }
+        return handled;
+    }
+
+    /**
+     * report the pending press is cancelled, e.g. the finger moved out or the gesture is aborted
+     */
+    private void cancelPendingPress() {
+        if (!isPressPending) {
+            return;
+        }
+        isPressPending = false;
+        mParentView.dispatchItemPressCancelled(getId());
+    }
+
+    @Override
+    public void requestLayout() {
+        super.requestLayout();
+        NavigationMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.onLayoutRequested(getId());
+        }
+    }
+
+    /**
+     * get trace sections and metrics sink of parent
+     *
+     * @return null if disabled
+     */
+    private NavigationMetrics getMetrics() {
+        //requestLayout() may be called by super constructor before parent is set
+        return mParentView == null ? null : mParentView.getMetrics();
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mBadgeDrawable || super.verifyDrawable(who);
+    }
+
+    /**
+     * get draw state in flat mode
+     *
+     * @return
+     */
+    FlatItemState getFlatItemState() {
+        return mFlatItemState;
+    }
+
+    /**
+     * notify parent to redraw this item in flat mode
+     */
+    private void invalidateFlatItem() {
+        mParentView.onFlatItemChanged(this);
+    }
+
+    /**
+     * apply the properties of spec which are different from the last bound spec
+     *
+     * @param itemSpec
+     */
+    void bindItemSpec(ItemSpec itemSpec) {
+        ItemSpec lastItemSpec = mItemSpec;
+        mItemSpec = itemSpec.copy();
+        if (lastItemSpec == null || !lastItemSpec.isSameTitle(itemSpec)) {
+            setText(itemSpec.getTitle());
+        }
+        if (lastItemSpec == null || lastItemSpec.getIconResId() != itemSpec.getIconResId()) {
+            if (itemSpec.getIconResId() != 0) {
+                setIconDrawable(itemSpec.getIconResId());
+            } else if (lastItemSpec != null) {
+                //a recycled item must not keep the icon of its last spec
+                setIconDrawable((Drawable) null);
+            }
+        }
+        if (lastItemSpec == null || !lastItemSpec.isSameBadge(itemSpec)) {
+            if (itemSpec.isShowDot()) {
+                setShowDot(true);
+            } else {
+                setNumber(itemSpec.getNumber());
+            }
+        }
+    }
+
+    /**
+     * set width weight of item, the width of bar is split by weights of items, default is 1
+     *
+     * @param widthWeight
+     */
+    public void setWidthWeight(float widthWeight) {
+        if (mWidthWeight == widthWeight) {
+            return;
+        }
+        mWidthWeight = widthWeight;
+        ViewGroup.LayoutParams layoutParams = getLayoutParams();
+        if (layoutParams instanceof LinearLayout.LayoutParams) {
+            ((LinearLayout.LayoutParams) layoutParams).weight = widthWeight;
+            mParentView.onItemWidthWeightChanged();
+        } else if (mFlatItemState != null) {
+            //flat items are split by the same weights
+            mParentView.onItemWidthWeightChanged();
+        }
+    }
+
+    /**
+     * get width weight of item
+     *
+     * @return
+     */
+    public float getWidthWeight() {
+        return mWidthWeight;
     }
 
     /**
@@ -98,24 +466,56 @@ public class NavigationItemView extends FrameLayout {
             mCurrentGravity = layoutGravity;
         }
 
+        if (mFlatItemState != null) {
+            mFlatItemState.gravity = layoutGravity;
+            mFlatItemState.marginBottom = getLayoutMarginBottom();
+            invalidateFlatItem();
+            return;
+        }
+
         FrameLayout.LayoutParams layoutParams = (LayoutParams) mLlContent.getLayoutParams();
+        //only set layout params when they change, it requests layout
+        if (applyLayoutGravity(layoutParams, layoutGravity)) {
+            mLlContent.setLayoutParams(layoutParams);
+        }
+    }
+
+    /**
+     * apply gravity to the layout params of content
+     *
+     * @param layoutParams
+     * @param layoutGravity
+     * @return false if nothing changed
+     */
+    private boolean applyLayoutGravity(FrameLayout.LayoutParams layoutParams, int layoutGravity) {
+        int gravity;
+        int bottomMargin;
         switch (layoutGravity) {
             case BottomNavigationView.ITEM_GRAVITY_MODE_CENTER:
             default:
-                layoutParams.gravity = Gravity.CENTER;
-                layoutParams.bottomMargin = 0;
+                gravity = Gravity.CENTER;
+                bottomMargin = 0;
                 break;
             case BottomNavigationView.ITEM_GRAVITY_MODE_BOTTOM:
-                layoutParams.gravity = Gravity.BOTTOM;
-                if (mMarginBottom == 0) {
-                    layoutParams.bottomMargin = getResources()
-                            .getDimensionPixelSize(R.dimen.bottom_navigation_view_item_margin_bottom);
-                } else {
-                    layoutParams.bottomMargin = mMarginBottom;
-                }
+                gravity = Gravity.BOTTOM;
+                bottomMargin = getLayoutMarginBottom();
                 break;
         }
-        mLlContent.setLayoutParams(layoutParams);
+        if (layoutParams.gravity == gravity && layoutParams.bottomMargin == bottomMargin) {
+            return false;
+        }
+        layoutParams.gravity = gravity;
+        layoutParams.bottomMargin = bottomMargin;
+        return true;
+    }
+
+    /**
+     * get margin bottom of content, 0 means the default one
+     *
+     * @return
+     */
+    private int getLayoutMarginBottom() {
+        return mMarginBottom == 0 ? mItemStyle.defaultBottomPadding : mMarginBottom;
     }
 
     /**
@@ -144,6 +544,11 @@ public class NavigationItemView extends FrameLayout {
      * @param dimensResId
      */
     public void setDrawableGap(@DimenRes int dimensResId) {
+        if (mFlatItemState != null) {
+            mFlatItemState.drawableGap = getResources().getDimensionPixelSize(dimensResId);
+            invalidateFlatItem();
+            return;
+        }
         LinearLayout.LayoutParams layoutParams = (LinearLayout.LayoutParams) mTvTitle.getLayoutParams();
         layoutParams.topMargin = getResources().getDimensionPixelSize(dimensResId);
         mTvTitle.setLayoutParams(layoutParams);
@@ -155,7 +560,15 @@ public class NavigationItemView extends FrameLayout {
      * @param margin
      */
     public void setDrawableGap(float margin) {
+        if (mFlatItemState != null) {
+            mFlatItemState.drawableGap = (int) margin;
+            invalidateFlatItem();
+            return;
+        }
         LinearLayout.LayoutParams layoutParams = (LinearLayout.LayoutParams) mTvTitle.getLayoutParams();
+        if (layoutParams.topMargin == (int) margin) {
+            return;
+        }
         layoutParams.topMargin = (int) margin;
         mTvTitle.setLayoutParams(layoutParams);
     }
@@ -166,27 +579,58 @@ public class NavigationItemView extends FrameLayout {
      * @param number
      */
     public void setNumber(Integer number) {
-        if (number != null) {
-            if (number > mMaxNumber) {
-                mTvNumber.setText(mMaxNumber + "+");
-            } else if (number > 0) {
-                mTvNumber.setText(number + "");
-            }
-            if (number > 0) {
-                setNumberBackgroundSize(null, null);
-                mTvNumber.setVisibility(View.VISIBLE);
-            } else {
-                mTvNumber.setVisibility(View.GONE);
-            }
+        if (number == null) {
+            setNumber(0);
         } else {
-            mTvNumber.setVisibility(View.GONE);
+            setNumber(number.intValue());
+        }
+    }
+
+    /**
+     * set or not show the number, number <= 0 won't be shown.
+     * Nothing happens if the shown text is not changed, otherwise only the item is redrawn.
+     *
+     * @param number
+     */
+    public void setNumber(int number) {
+        NavigationMetrics metrics = getMetrics();
+        long startNanos = metrics == null ? 0 : metrics.beginSection(NavigationMetricsSink.SECTION_SET_NUMBER);
+        try {
+            applyNumber(number);
+        } finally {
+            if (metrics != null) {
+                metrics.endSection(NavigationMetricsSink.SECTION_SET_NUMBER, getId(), startNanos);
+            }
+        }
+    }
+
+    private void applyNumber(int number) {
+        if (number <= 0) {
+            setShowDot(false);
+            return;
+        }
+        String numberText = BadgeTextCache.format(number, mMaxNumber, isCompactNumber);
+        boolean textChanged = mBadgeDrawable.setText(numberText);
+        boolean shownChanged = mBadgeDrawable.setShown(true);
+        if (textChanged || shownChanged) {
+            invalidateBadge();
         }
+        setBadgeValue(number);
+    }
+
+    /**
+     * show numbers >= 1000 as "1.2k", "12k" or "1.2m"
+     *
+     * @param compactNumber
+     */
+    public void setCompactNumber(boolean compactNumber) {
+        isCompactNumber = compactNumber;
     }
 
     /**
      * set max number
      *
-     * @param maxNumber
+     * @param maxNumber numbers above it are shown as "n+", a max number < 1 is taken as 1
      */
     public void setMaxNumber(int maxNumber) {
         mMaxNumber = maxNumber;
@@ -198,11 +642,32 @@ public class NavigationItemView extends FrameLayout {
      * @param shown
      */
     public void setShowDot(boolean shown) {
-        if (shown) {
-            mTvNumber.setVisibility(View.VISIBLE);
-        } else {
-            mTvNumber.setVisibility(View.GONE);
+        if (mBadgeDrawable.setShown(shown)) {
+            invalidateBadge();
         }
+        setBadgeValue(shown ? BottomNavigationView.BADGE_DOT : 0);
+    }
+
+    /**
+     * record the badge and report it to parent
+     *
+     * @param badgeValue
+     */
+    private void setBadgeValue(int badgeValue) {
+        if (mBadgeValue == badgeValue) {
+            return;
+        }
+        mBadgeValue = badgeValue;
+        mParentView.onItemBadgeChanged(this, badgeValue);
+    }
+
+    /**
+     * get the badge shown
+     *
+     * @return a number > 0, BottomNavigationView.BADGE_DOT or 0 for none
+     */
+    int getBadgeValue() {
+        return mBadgeValue;
     }
 
     /**
@@ -211,6 +676,12 @@ public class NavigationItemView extends FrameLayout {
      * @param text
      */
     public void setText(String text) {
+        if (mFlatItemState != null) {
+            mFlatItemState.title = text;
+            mFlatItemState.invalidateTitle();
+            invalidateFlatItem();
+            return;
+        }
         mTvTitle.setText(text);
     }
 
@@ -220,6 +691,10 @@ public class NavigationItemView extends FrameLayout {
      * @param textResId
      */
     public void setText(@StringRes int textResId) {
+        if (mFlatItemState != null) {
+            setText(getResources().getString(textResId));
+            return;
+        }
         mTvTitle.setText(textResId);
     }
 
@@ -229,7 +704,7 @@ public class NavigationItemView extends FrameLayout {
      * @param textSizeResId
      */
     public void setTextSize(@DimenRes int textSizeResId) {
-        mTvTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, getResources().getDimensionPixelSize(textSizeResId));
+        setTextSize((float) getResources().getDimensionPixelSize(textSizeResId));
     }
 
     /**
@@ -238,7 +713,14 @@ public class NavigationItemView extends FrameLayout {
      * @param textSize (px)
      */
     public void setTextSize(float textSize) {
+        if (mFlatItemState != null) {
+            mFlatItemState.titlePaint.setTextSize(textSize);
+            mFlatItemState.invalidateTitle();
+            invalidateFlatItem();
+            return;
+        }
         mTvTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSize);
+        updateTitleBoldPadding();
     }
 
     /**
@@ -247,7 +729,7 @@ public class NavigationItemView extends FrameLayout {
      * @param textColor
      */
     public void setTextColorRes(@ColorRes int textColor) {
-        mTvTitle.setTextColor(ContextCompat.getColor(getContext(), textColor));
+        setTextColor(ContextCompat.getColor(getContext(), textColor));
     }
 
     /**
@@ -256,6 +738,10 @@ public class NavigationItemView extends FrameLayout {
      * @param textColor
      */
     public void setTextColor(@ColorInt int textColor) {
+        if (mFlatItemState != null) {
+            setTextColorStateList(ColorStateList.valueOf(textColor));
+            return;
+        }
         mTvTitle.setTextColor(textColor);
     }
 
@@ -268,6 +754,11 @@ public class NavigationItemView extends FrameLayout {
         if (colorStateList == null) {
             return;
         }
+        if (mFlatItemState != null) {
+            mFlatItemState.titleColor = colorStateList;
+            invalidateFlatItem();
+            return;
+        }
         mTvTitle.setTextColor(colorStateList);
     }
 
@@ -278,6 +769,35 @@ public class NavigationItemView extends FrameLayout {
      */
     public void setTextSelectedBold(boolean textSelectedBold) {
         isTextSelectedBold = textSelectedBold;
+        if (mFlatItemState != null) {
+            mFlatItemState.textSelectedBold = textSelectedBold;
+        }
+    }
+
+    /**
+     * draw selected bold text with fake bold paint instead of switching typeface.
+     * The text keeps the same measurement, so selection only redraws the title without layout.
+     *
+     * @param textSelectedFakeBold
+     */
+    public void setTextSelectedFakeBold(boolean textSelectedFakeBold) {
+        isTextSelectedFakeBold = textSelectedFakeBold;
+        if (mFlatItemState != null) {
+            mFlatItemState.textSelectedFakeBold = textSelectedFakeBold;
+            return;
+        }
+        updateTitleBoldPadding();
+    }
+
+    /**
+     * fake bold strokes glyphs a little wider than their advances,
+     * reserve that space up front so it won't be clipped
+     */
+    private void updateTitleBoldPadding() {
+        int padding = isTextSelectedFakeBold ? (int) Math.ceil(mTvTitle.getTextSize() / FAKE_BOLD_PADDING_RATIO) : 0;
+        if (mTvTitle.getPaddingLeft() != padding || mTvTitle.getPaddingRight() != padding) {
+            mTvTitle.setPadding(padding, mTvTitle.getPaddingTop(), padding, mTvTitle.getPaddingBottom());
+        }
     }
 
     /**
@@ -286,15 +806,216 @@ public class NavigationItemView extends FrameLayout {
      * @param drawableResId
      */
     public void setIconDrawable(@DrawableRes int drawableResId) {
+        mIconRequestId++;
+        if (mFlatItemState != null || mIconTint != null || mParentView.isIconAtlasEnabled()) {
+            applyIconDrawable(ContextCompat.getDrawable(getContext(), drawableResId));
+            return;
+        }
+        mIconDrawable = null;
         mIvIcon.setImageResource(drawableResId);
     }
 
+    /**
+     * set icon drawable
+     *
+     * @param drawable
+     */
+    public void setIconDrawable(Drawable drawable) {
+        mIconRequestId++;
+        applyIconDrawable(drawable);
+    }
+
+    private void applyIconDrawable(Drawable drawable) {
+        mIconDrawable = tintIcon(drawable);
+        showIcon(mIconDrawable);
+        //the icon is shown by itself until the atlas is rebuilt
+        mParentView.onItemIconChanged();
+    }
+
+    private void showIcon(Drawable drawable) {
+        if (mFlatItemState != null) {
+            mFlatItemState.setIcon(drawable);
+            mFlatItemState.setChecked(mFlatItemState.checked);
+            invalidateFlatItem();
+            return;
+        }
+        mIvIcon.setImageDrawable(drawable);
+    }
+
+    /**
+     * show icon drawn from the icon atlas of parent
+     *
+     * @param atlasIcon null to show the icon set to item again
+     */
+    void setAtlasIcon(Drawable atlasIcon) {
+        showIcon(atlasIcon != null ? atlasIcon : mIconDrawable);
+    }
+
+    /**
+     * get the icon set to item
+     *
+     * @return null if there is no icon
+     */
+    Drawable getIconDrawable() {
+        //the icon set by resource id is only kept by ImageView
+        if (mIconDrawable == null && mIvIcon != null && !(mIvIcon.getDrawable() instanceof AtlasIconDrawable)) {
+            mIconDrawable = mIvIcon.getDrawable();
+        }
+        return mIconDrawable;
+    }
+
+    /**
+     * set tint of icon, the checked state changes the tint instead of the icon.
+     * The icon should be a single drawable without selected state.
+     *
+     * @param iconTint null to not tint icon
+     */
+    public void setIconTint(ColorStateList iconTint) {
+        mIconTint = iconTint;
+        Drawable icon = mIconDrawable != null || mFlatItemState != null ? mIconDrawable : mIvIcon.getDrawable();
+        if (icon == null) {
+            return;
+        }
+        if (iconTint != null) {
+            applyIconDrawable(icon);
+            return;
+        }
+        DrawableCompat.setTintList(icon, null);
+        if (mFlatItemState != null) {
+            invalidateFlatItem();
+        } else {
+            mIvIcon.invalidate();
+        }
+        mParentView.onItemIconChanged();
+    }
+
+    /**
+     * tint icon by mIconTint, the bitmap of icon is still shared with other drawables
+     *
+     * @param icon
+     * @return the tinted icon
+     */
+    private Drawable tintIcon(Drawable icon) {
+        if (icon == null || mIconTint == null) {
+            return icon;
+        }
+        Drawable tintedIcon = DrawableCompat.wrap(icon.mutate());
+        DrawableCompat.setTintList(tintedIcon, mIconTint);
+        return tintedIcon;
+    }
+
+    /**
+     * load icon by IconLoader of parent on a background thread, the bitmap is decoded to fit in the icon size
+     * and cached in an LRU cache shared by all bars. A cached icon is set at once.
+     *
+     * @param source         see LocalIconLoader for the sources it supports
+     * @param selectedSource the icon when item is checked, null to use the same icon
+     */
+    public void loadIcon(String source, String selectedSource) {
+        loadIcon(source, selectedSource, 0, 0);
+    }
+
+    /**
+     * load bitmap drawable resources as icon like loadIcon(String, String),
+     * fall back to setIconDrawable() if they can't be decoded as bitmaps
+     *
+     * @param drawableResId
+     * @param selectedDrawableResId the icon when item is checked, 0 to use the same icon
+     */
+    public void loadIcon(@DrawableRes int drawableResId, @DrawableRes int selectedDrawableResId) {
+        Context context = getContext();
+        loadIcon(LocalIconLoader.fromResource(context, drawableResId)
+                , selectedDrawableResId == 0 ? null : LocalIconLoader.fromResource(context, selectedDrawableResId)
+                , drawableResId, selectedDrawableResId);
+    }
+
+    private void loadIcon(final String source, final String selectedSource
+            , @DrawableRes final int fallbackResId, @DrawableRes final int fallbackSelectedResId) {
+        final int iconRequestId = ++mIconRequestId;
+        final int iconSize = getIconSize();
+
+        Bitmap cachedIcon = IconCache.get(source, iconSize);
+        Bitmap cachedSelectedIcon = selectedSource == null ? null : IconCache.get(selectedSource, iconSize);
+        if (cachedIcon != null && (selectedSource == null || cachedSelectedIcon != null)) {
+            applyIconBitmaps(cachedIcon, cachedSelectedIcon);
+            return;
+        }
+
+        final IconLoader iconLoader = mParentView.getIconLoader();
+        final Context context = getContext().getApplicationContext();
+        NavigationExecutors.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap icon = IconCache.load(iconLoader, context, source, iconSize);
+                final Bitmap selectedIcon = selectedSource == null || icon == null ? null
+                        : IconCache.load(iconLoader, context, selectedSource, iconSize);
+                NavigationExecutors.main().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        //the icon is changed again before it is loaded
+                        if (iconRequestId != mIconRequestId) {
+                            return;
+                        }
+                        if (icon != null && (selectedSource == null || selectedIcon != null)) {
+                            applyIconBitmaps(icon, selectedIcon);
+                        } else if (fallbackResId != 0) {
+                            applyIconDrawable(createIconDrawable(ContextCompat.getDrawable(getContext(), fallbackResId)
+                                    , fallbackSelectedResId == 0 ? null
+                                            : ContextCompat.getDrawable(getContext(), fallbackSelectedResId)));
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void applyIconBitmaps(Bitmap icon, Bitmap selectedIcon) {
+        Resources resources = getResources();
+        applyIconDrawable(createIconDrawable(new BitmapDrawable(resources, icon)
+                , selectedIcon == null ? null : new BitmapDrawable(resources, selectedIcon)));
+    }
+
+    /**
+     * create icon with selected state
+     *
+     * @param icon
+     * @param selectedIcon null to use the same icon
+     * @return
+     */
+    private Drawable createIconDrawable(Drawable icon, Drawable selectedIcon) {
+        if (selectedIcon == null) {
+            return icon;
+        }
+        StateListDrawable stateListDrawable = new StateListDrawable();
+        stateListDrawable.addState(STATE_CHECKED, selectedIcon);
+        stateListDrawable.addState(STATE_UNCHECKED, icon);
+        return stateListDrawable;
+    }
+
+    /**
+     * get current icon size
+     *
+     * @return
+     */
+    int getIconSize() {
+        if (mFlatItemState != null) {
+            return mFlatItemState.iconSize;
+        }
+        return mIvIcon.getLayoutParams().width;
+    }
+
     /**
      * set icon drawable
      *
      * @param drawableResId
      */
     public void setIconBacgroundDrawable(@DrawableRes int drawableResId) {
+        if (mFlatItemState != null) {
+            mFlatItemState.setIconBackground(ContextCompat.getDrawable(getContext(), drawableResId));
+            mFlatItemState.setChecked(mFlatItemState.checked);
+            invalidateFlatItem();
+            return;
+        }
         mIvIcon.setBackgroundResource(drawableResId);
     }
 
@@ -307,6 +1028,14 @@ public class NavigationItemView extends FrameLayout {
      * @param bottom
      */
     public void setIconPadding(int left, int top, int right, int bottom) {
+        if (mFlatItemState != null) {
+            mFlatItemState.iconPaddingLeft = left;
+            mFlatItemState.iconPaddingTop = top;
+            mFlatItemState.iconPaddingRight = right;
+            mFlatItemState.iconPaddingBottom = bottom;
+            invalidateFlatItem();
+            return;
+        }
         mIvIcon.setPadding(left, top, right, bottom);
     }
 
@@ -316,11 +1045,7 @@ public class NavigationItemView extends FrameLayout {
      * @param sizeDimenRes
      */
     public void setIconSizeDimen(@DimenRes int sizeDimenRes) {
-        int size = getResources().getDimensionPixelSize(sizeDimenRes);
-        LinearLayout.LayoutParams layoutParams = (LinearLayout.LayoutParams) mIvIcon.getLayoutParams();
-        layoutParams.width = size;
-        layoutParams.height = size;
-        mIvIcon.setLayoutParams(layoutParams);
+        setIconSize(getResources().getDimensionPixelSize(sizeDimenRes));
     }
 
     /**
@@ -329,10 +1054,20 @@ public class NavigationItemView extends FrameLayout {
      * @param size
      */
     public void setIconSize(int size) {
+        if (mFlatItemState != null) {
+            mFlatItemState.iconSize = size;
+            invalidateFlatItem();
+            mParentView.onItemIconChanged();
+            return;
+        }
         LinearLayout.LayoutParams layoutParams = (LinearLayout.LayoutParams) mIvIcon.getLayoutParams();
+        if (layoutParams.width == size && layoutParams.height == size) {
+            return;
+        }
         layoutParams.width = size;
         layoutParams.height = size;
         mIvIcon.setLayoutParams(layoutParams);
+        mParentView.onItemIconChanged();
     }
 
     /**
@@ -344,7 +1079,8 @@ public class NavigationItemView extends FrameLayout {
         if (colorStateList == null) {
             return;
         }
-        mTvNumber.setTextColor(colorStateList);
+        mBadgeDrawable.setTextColor(colorStateList);
+        invalidateBadge();
     }
 
     /**
@@ -353,7 +1089,7 @@ public class NavigationItemView extends FrameLayout {
      * @param color
      */
     public void setNumberTextColor(@ColorInt int color) {
-        mTvNumber.setTextColor(color);
+        setNumberTextColor(ColorStateList.valueOf(color));
     }
 
     /**
@@ -362,7 +1098,7 @@ public class NavigationItemView extends FrameLayout {
      * @param colorRes
      */
     public void setNumberTextColorRes(@ColorRes int colorRes) {
-        mTvNumber.setTextColor(ContextCompat.getColor(getContext(), colorRes));
+        setNumberTextColor(ContextCompat.getColor(getContext(), colorRes));
     }
 
     /**
@@ -371,11 +1107,12 @@ public class NavigationItemView extends FrameLayout {
      * @param textSize
      */
     public void setNumberTextSize(float textSize) {
-        mTvNumber.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSize);
+        mBadgeDrawable.setTextSize(textSize);
+        invalidateBadge();
     }
 
     public void setNumberTextSize(@DimenRes int textSize) {
-        mTvNumber.setTextSize(TypedValue.COMPLEX_UNIT_PX, getResources().getDimensionPixelSize(textSize));
+        setNumberTextSize((float) getResources().getDimensionPixelSize(textSize));
     }
 
     /**
@@ -385,10 +1122,8 @@ public class NavigationItemView extends FrameLayout {
      * @param marginTop
      */
     public void setNumberMargin(int marginLeft, int marginTop) {
-        FrameLayout.LayoutParams layoutParams = (LayoutParams) mTvNumber.getLayoutParams();
-        layoutParams.leftMargin = marginLeft;
-        layoutParams.topMargin = marginTop;
-        mTvNumber.setLayoutParams(layoutParams);
+        mBadgeDrawable.setMargin(marginLeft, marginTop);
+        invalidateBadge();
     }
 
     /**
@@ -400,7 +1135,7 @@ public class NavigationItemView extends FrameLayout {
         if (drawableRes == -1) {
             return;
         }
-        mTvNumber.setBackgroundResource(drawableRes);
+        setNumberBackground(ContextCompat.getDrawable(getContext(), drawableRes));
     }
 
     /**
@@ -412,11 +1147,10 @@ public class NavigationItemView extends FrameLayout {
         if (drawableRes == null) {
             return;
         }
-        if (Build.VERSION.SDK_INT > Build.VERSION_CODES.JELLY_BEAN) {
-            mTvNumber.setBackground(drawableRes);
-        } else {
-            mTvNumber.setBackgroundDrawable(drawableRes);
-        }
+        //the same drawable may be set to many items, each badge needs its own state and bounds
+        Drawable.ConstantState constantState = drawableRes.getConstantState();
+        mBadgeDrawable.setBackground(constantState == null ? drawableRes : constantState.newDrawable(getResources()));
+        invalidateBadge();
     }
 
     /**
@@ -436,35 +1170,9 @@ public class NavigationItemView extends FrameLayout {
      * @param height
      */
     public void setNumberBackgroundSize(Integer width, Integer height) {
-        FrameLayout.LayoutParams layoutParams = (FrameLayout.LayoutParams) mTvNumber.getLayoutParams();
-        if (width == null) {
-            width = layoutParams.width;
-        }
-        if (height == null) {
-            height = layoutParams.height;
-        }
-        String number = mTvNumber.getText().toString();
-        if (!TextUtils.isEmpty(number)) {
-            int numberWidth = (int) getCurrentNumberWidth();
-            layoutParams.width = numberWidth > width ? numberWidth + Math.abs(mTvNumber.getLineHeight() - height) * 2 : width;
-        } else {
-            layoutParams.width = width;
-        }
-        layoutParams.height = height;
-        mTvNumber.setLayoutParams(layoutParams);
-    }
-
-    /**
-     * get current number width
-     *
-     * @return
-     */
-    private float getCurrentNumberWidth() {
-        if (TextUtils.isEmpty(mTvNumber.getText().toString())) {
-            return 0;
-        }
-        String number = mTvNumber.getText().toString();
-        return mTvNumber.getPaint().measureText(number);
+        mBadgeDrawable.setSize(width == null ? mBadgeDrawable.getMinWidth() : width
+                , height == null ? mBadgeDrawable.getHeight() : height);
+        invalidateBadge();
     }
 
     /**
@@ -473,16 +1181,71 @@ public class NavigationItemView extends FrameLayout {
      * @param isCheck
      */
     public void setCheckedState(boolean isCheck) {
+        mBadgeDrawable.setState(isCheck ? STATE_CHECKED : STATE_UNCHECKED);
+        if (mFlatItemState != null) {
+            mFlatItemState.setChecked(isCheck);
+            invalidateFlatItem();
+            return;
+        }
         mIvIcon.setSelected(isCheck);
         mTvTitle.setSelected(isCheck);
-        mTvNumber.setSelected(isCheck);
 
-        if (isTextSelectedBold) {
+        if (isTextSelectedBold && isTextSelectedFakeBold) {
+            mTvTitle.getPaint().setFakeBoldText(isCheck);
+            mTvTitle.invalidate();
+        } else if (isTextSelectedBold) {
             if (isCheck) {
                 mTvTitle.setTypeface(Typeface.DEFAULT_BOLD);
             } else {
                 mTvTitle.setTypeface(Typeface.DEFAULT);
             }
         }
+
+        if (mParentView.isSelectionAnimationEnabled()) {
+            applyCheckedProperties(isCheck, true);
+        }
+    }
+
+    /**
+     * call when selection animation of parent is enabled or disabled
+     */
+    void onSelectionAnimationChanged() {
+        if (mFlatItemState != null) {
+            return;
+        }
+        if (mParentView.isSelectionAnimationEnabled()) {
+            applyCheckedProperties(mIvIcon.isSelected(), false);
+        } else {
+            applyCheckedProperties(true, false);
+        }
+    }
+
+    /**
+     * set icon scale and title alpha and translation of checked state, they are render properties
+     * which only update the display list of content, so there is no measure or layout while animating
+     *
+     * @param isCheck
+     * @param animate animate if the item is shown
+     */
+    private void applyCheckedProperties(boolean isCheck, boolean animate) {
+        float iconScale = isCheck ? 1f : UNCHECKED_ICON_SCALE;
+        float titleAlpha = isCheck ? 1f : UNCHECKED_TITLE_ALPHA;
+        float titleTranslationY = isCheck ? 0 : mItemStyle.selectionTitleTranslation;
+        //items prepared on background thread are not attached, there is no animation to cancel
+        boolean isAttached = getWindowToken() != null;
+        if (isAttached) {
+            mIvIcon.animate().cancel();
+            mTvTitle.animate().cancel();
+        }
+        if (animate && isAttached && getWidth() > 0) {
+            mIvIcon.animate().scaleX(iconScale).scaleY(iconScale).setDuration(mItemStyle.animationDuration);
+            mTvTitle.animate().alpha(titleAlpha).translationY(titleTranslationY)
+                    .setDuration(mItemStyle.animationDuration);
+            return;
+        }
+        mIvIcon.setScaleX(iconScale);
+        mIvIcon.setScaleY(iconScale);
+        mTvTitle.setAlpha(titleAlpha);
+        mTvTitle.setTranslationY(titleTranslationY);
     }
 }
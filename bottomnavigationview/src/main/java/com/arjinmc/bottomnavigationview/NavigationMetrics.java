@@ -0,0 +1,75 @@
+package com.arjinmc.bottomnavigationview;
+
+import androidx.core.os.TraceCompat;
+
+/**
+ * Trace sections and metrics of BottomNavigationView, only exists when they are enabled,
+ * so the callers check null first and there is no cost when disabled.
+ * It is immutable, so a section always ends with the instance it began with.
+ */
+final class NavigationMetrics {
+
+    private static final String[] SECTION_NAMES = new String[]{
+            "BottomNavigationView#inflateItem",
+            "BottomNavigationView#addItem",
+            "BottomNavigationView#dispatchItemSelected",
+            "BottomNavigationView#setNumber",
+            "BottomNavigationView#measure",
+            "BottomNavigationView#layout",
+            "BottomNavigationView#draw",
+            "BottomNavigationView#measureItem",
+            "BottomNavigationView#layoutItem",
+            "BottomNavigationView#drawItem"
+    };
+
+    private final NavigationMetricsSink mSink;
+    private final boolean isTraceEnabled;
+
+    NavigationMetrics(NavigationMetricsSink sink, boolean traceEnabled) {
+        mSink = sink;
+        isTraceEnabled = traceEnabled;
+    }
+
+    NavigationMetricsSink getSink() {
+        return mSink;
+    }
+
+    boolean isTraceEnabled() {
+        return isTraceEnabled;
+    }
+
+    /**
+     * begin a section
+     *
+     * @param section one of NavigationMetricsSink.SECTION_XXX
+     * @return start time to pass to endSection()
+     */
+    long beginSection(int section) {
+        if (isTraceEnabled) {
+            TraceCompat.beginSection(SECTION_NAMES[section]);
+        }
+        return mSink == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * end the section began by beginSection()
+     *
+     * @param section
+     * @param itemId
+     * @param startNanos
+     */
+    void endSection(int section, int itemId, long startNanos) {
+        if (mSink != null) {
+            mSink.onSection(section, itemId, System.nanoTime() - startNanos);
+        }
+        if (isTraceEnabled) {
+            TraceCompat.endSection();
+        }
+    }
+
+    void onLayoutRequested(int itemId) {
+        if (mSink != null) {
+            mSink.onLayoutRequested(itemId);
+        }
+    }
+}
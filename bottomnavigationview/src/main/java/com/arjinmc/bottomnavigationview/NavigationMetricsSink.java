@@ -0,0 +1,67 @@
+package com.arjinmc.bottomnavigationview;
+
+/**
+ * Receiver of performance counters of BottomNavigationView, see BottomNavigationView.setMetricsSink().
+ * Every call of onSection() counts one operation with its duration.
+ * Sections of items created by prepareItems() are reported on the background thread.
+ */
+public interface NavigationMetricsSink {
+
+    /**
+     * create a NavigationItemView, reported with View.NO_ID since the id is set after the item is created
+     */
+    int SECTION_INFLATE_ITEM = 0;
+    /**
+     * BottomNavigationView.addItem()
+     */
+    int SECTION_ADD_ITEM = 1;
+    /**
+     * BottomNavigationView.dispatchItemSelected() including the selected listener
+     */
+    int SECTION_DISPATCH_ITEM_SELECTED = 2;
+    /**
+     * NavigationItemView.setNumber()
+     */
+    int SECTION_SET_NUMBER = 3;
+    /**
+     * measure of the bar
+     */
+    int SECTION_MEASURE = 4;
+    /**
+     * layout of the bar
+     */
+    int SECTION_LAYOUT = 5;
+    /**
+     * draw of the bar
+     */
+    int SECTION_DRAW = 6;
+    /**
+     * measure of an item
+     */
+    int SECTION_MEASURE_ITEM = 7;
+    /**
+     * layout of an item
+     */
+    int SECTION_LAYOUT_ITEM = 8;
+    /**
+     * draw of an item, also reported for each item drawn in flat mode
+     */
+    int SECTION_DRAW_ITEM = 9;
+
+    /**
+     * a section is finished
+     *
+     * @param section       one of SECTION_XXX
+     * @param itemId        the id of item, View.NO_ID for the sections of the bar
+     * @param durationNanos
+     */
+    void onSection(int section, int itemId, long durationNanos);
+
+    /**
+     * requestLayout() of the bar or an item is called, by the library, the app or a child whose layout changes.
+     * Both count every call, a call of a child reaches its parent only if the parent has no pending layout.
+     *
+     * @param itemId the id of item, View.NO_ID for the bar
+     */
+    void onLayoutRequested(int itemId);
+}
@@ -0,0 +1,362 @@
+package com.arjinmc.bottomnavigationview;
+
+import java.util.Arrays;
+
+/**
+ * State of BottomNavigationView without any view: the item ids in order, the checked item and the badges.
+ * BottomNavigationView keeps its item views in the same order and renders them from the callbacks,
+ * so the state has no dependency on Android framework and can be benchmarked on JVM.
+ */
+final class NavigationState {
+
+    /**
+     * the badge value of no badge
+     */
+    static final int BADGE_NONE = 0;
+    /**
+     * the badge value of dot
+     */
+    static final int BADGE_DOT = Integer.MIN_VALUE;
+
+    private static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * item ids by position
+     */
+    private int[] mItemIds = new int[DEFAULT_CAPACITY];
+    /**
+     * badges by position, BADGE_NONE, BADGE_DOT or a number > 0
+     */
+    private int[] mBadges = new int[DEFAULT_CAPACITY];
+    private int mItemCount;
+
+    /**
+     * item id to position, the ids are sorted to be found by binary search.
+     * Each id has one entry, so ids of items are unique.
+     */
+    private int[] mSortedIds = new int[DEFAULT_CAPACITY];
+    private int[] mSortedPositions = new int[DEFAULT_CAPACITY];
+    private int mIndexSize;
+
+    private int mCheckedItemId;
+
+    private Callback mCallback;
+
+    NavigationState(Callback callback) {
+        mCallback = callback;
+    }
+
+    int getItemCount() {
+        return mItemCount;
+    }
+
+    int getItemId(int position) {
+        return mItemIds[position];
+    }
+
+    int getCheckedItemId() {
+        return mCheckedItemId;
+    }
+
+    /**
+     * get position of item
+     *
+     * @param itemId
+     * @return -1 if not found
+     */
+    int indexOf(int itemId) {
+        int index = Arrays.binarySearch(mSortedIds, 0, mIndexSize, itemId);
+        return index < 0 ? -1 : mSortedPositions[index];
+    }
+
+    /**
+     * add item at the end, the first item is checked
+     *
+     * @param itemId
+     * @param badge
+     * @return position of the item
+     * @throws IllegalArgumentException if the id is used by another item, nothing is changed then
+     */
+    int addItem(int itemId, int badge) {
+        if (indexOf(itemId) != -1) {
+            throw new IllegalArgumentException("Duplicate item id: " + itemId);
+        }
+        int position = mItemCount;
+        ensureCapacity(position + 1);
+        mItemIds[position] = itemId;
+        mBadges[position] = badge;
+        mItemCount++;
+        putIndex(itemId, position);
+        if (position == 0) {
+            mCheckedItemId = itemId;
+            mCallback.onItemCheckedChanged(0, true);
+        }
+        return position;
+    }
+
+    /**
+     * remove item by position, the checked item id is kept even if it is removed
+     *
+     * @param position
+     */
+    void removeItemAt(int position) {
+        deleteIndex(mItemIds[position]);
+        int moved = mItemCount - position - 1;
+        System.arraycopy(mItemIds, position + 1, mItemIds, position, moved);
+        System.arraycopy(mBadges, position + 1, mBadges, position, moved);
+        shiftIndex(position + 1, mItemCount, -1);
+        mItemCount--;
+    }
+
+    /**
+     * check the first item if the checked item is removed, no selected callbacks are called like addItem()
+     */
+    void ensureChecked() {
+        if (mItemCount > 0 && indexOf(mCheckedItemId) == -1) {
+            mCheckedItemId = mItemIds[0];
+            mCallback.onItemCheckedChanged(0, true);
+        }
+    }
+
+    /**
+     * select item, onItemReleaseSelected() of the last item is called before the checked state changes,
+     * then onItemSelected() of the new one.
+     *
+     * @param itemId
+     * @return false if nothing changed
+     */
+    boolean select(int itemId) {
+        if (mItemCount == 0 || mCheckedItemId == itemId) {
+            return false;
+        }
+        mCallback.onItemReleaseSelected(mCheckedItemId);
+        changeChecked(itemId);
+        mCallback.onItemSelected(itemId);
+        return true;
+    }
+
+    /**
+     * check an existing item without selected callbacks, e.g. to restore the checked item
+     *
+     * @param itemId
+     * @return false if nothing changed or the item is not found
+     */
+    boolean check(int itemId) {
+        if (mCheckedItemId == itemId || indexOf(itemId) == -1) {
+            return false;
+        }
+        changeChecked(itemId);
+        return true;
+    }
+
+    private void changeChecked(int itemId) {
+        //only the last checked item and the new one change their state
+        int lastPosition = indexOf(mCheckedItemId);
+        if (lastPosition != -1) {
+            mCallback.onItemCheckedChanged(lastPosition, false);
+        }
+        mCheckedItemId = itemId;
+        int position = indexOf(itemId);
+        if (position != -1) {
+            mCallback.onItemCheckedChanged(position, true);
+        }
+    }
+
+    int getBadge(int position) {
+        return mBadges[position];
+    }
+
+    /**
+     * set badge of item
+     *
+     * @param position
+     * @param badge    BADGE_NONE, BADGE_DOT or a number > 0
+     * @return false if nothing changed
+     */
+    boolean setBadge(int position, int badge) {
+        if (mBadges[position] == badge) {
+            return false;
+        }
+        mBadges[position] = badge;
+        return true;
+    }
+
+    /**
+     * change items to the ids with minimal changes, the changes are reported in order:
+     * removes from the last position, then inserts and moves from the first position.
+     * Positions of each change are based on the items after the previous changes.
+     * The ids are checked before any change, nothing changes if they are not unique.
+     * The current ids are unique by the same rule of addItem(), so each of them is found at its position by index.
+     *
+     * @param itemIds
+     * @param count        count of ids used in itemIds
+     * @param diffCallback
+     * @return false if nothing changed
+     * @throws IllegalArgumentException if an id is used more than once
+     */
+    boolean setItemIds(int[] itemIds, int count, DiffCallback diffCallback) {
+        int[] sortedNewIds = Arrays.copyOf(itemIds, count);
+        Arrays.sort(sortedNewIds);
+        for (int i = 1; i < count; i++) {
+            if (sortedNewIds[i] == sortedNewIds[i - 1]) {
+                throw new IllegalArgumentException("Duplicate item id: " + sortedNewIds[i]);
+            }
+        }
+
+        boolean changed = false;
+        for (int i = mItemCount - 1; i >= 0; i--) {
+            if (Arrays.binarySearch(sortedNewIds, mItemIds[i]) < 0) {
+                removeItemAt(i);
+                diffCallback.onItemRemoved(i);
+                changed = true;
+            }
+        }
+
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            int itemId = itemIds[i];
+            if (i < mItemCount && mItemIds[i] == itemId) {
+                continue;
+            }
+            int position = indexOf(itemId);
+            if (position == -1) {
+                insertItemAt(i, itemId);
+                diffCallback.onItemInserted(i, itemId);
+            } else {
+                moveItem(position, i);
+                diffCallback.onItemMoved(position, i);
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * insert item without badge
+     *
+     * @param position
+     * @param itemId
+     */
+    private void insertItemAt(int position, int itemId) {
+        ensureCapacity(mItemCount + 1);
+        int moved = mItemCount - position;
+        System.arraycopy(mItemIds, position, mItemIds, position + 1, moved);
+        System.arraycopy(mBadges, position, mBadges, position + 1, moved);
+        mItemIds[position] = itemId;
+        mBadges[position] = BADGE_NONE;
+        shiftIndex(position, mItemCount, 1);
+        mItemCount++;
+        putIndex(itemId, position);
+    }
+
+    /**
+     * move item to a lower position
+     *
+     * @param fromPosition
+     * @param toPosition
+     */
+    private void moveItem(int fromPosition, int toPosition) {
+        int itemId = mItemIds[fromPosition];
+        int badge = mBadges[fromPosition];
+        int moved = fromPosition - toPosition;
+        System.arraycopy(mItemIds, toPosition, mItemIds, toPosition + 1, moved);
+        System.arraycopy(mBadges, toPosition, mBadges, toPosition + 1, moved);
+        mItemIds[toPosition] = itemId;
+        mBadges[toPosition] = badge;
+        shiftIndex(toPosition, fromPosition, 1);
+        mSortedPositions[Arrays.binarySearch(mSortedIds, 0, mIndexSize, itemId)] = toPosition;
+    }
+
+    /**
+     * add offset to the indexed positions in [fromPosition, toPosition)
+     *
+     * @param fromPosition
+     * @param toPosition
+     * @param offset
+     */
+    private void shiftIndex(int fromPosition, int toPosition, int offset) {
+        for (int i = 0; i < mIndexSize; i++) {
+            int position = mSortedPositions[i];
+            if (position >= fromPosition && position < toPosition) {
+                mSortedPositions[i] = position + offset;
+            }
+        }
+    }
+
+    /**
+     * put item into index
+     *
+     * @param itemId
+     * @param position
+     */
+    private void putIndex(int itemId, int position) {
+        //ids are unique, addItem() and setItemIds() reject the duplicate ones before any change
+        int index = ~Arrays.binarySearch(mSortedIds, 0, mIndexSize, itemId);
+        System.arraycopy(mSortedIds, index, mSortedIds, index + 1, mIndexSize - index);
+        System.arraycopy(mSortedPositions, index, mSortedPositions, index + 1, mIndexSize - index);
+        mSortedIds[index] = itemId;
+        mSortedPositions[index] = position;
+        mIndexSize++;
+    }
+
+    /**
+     * delete item from index
+     *
+     * @param itemId
+     */
+    private void deleteIndex(int itemId) {
+        int index = Arrays.binarySearch(mSortedIds, 0, mIndexSize, itemId);
+        if (index < 0) {
+            return;
+        }
+        int moved = mIndexSize - index - 1;
+        System.arraycopy(mSortedIds, index + 1, mSortedIds, index, moved);
+        System.arraycopy(mSortedPositions, index + 1, mSortedPositions, index, moved);
+        mIndexSize--;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (mItemIds.length >= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, mItemIds.length * 2);
+        mItemIds = Arrays.copyOf(mItemIds, newCapacity);
+        mBadges = Arrays.copyOf(mBadges, newCapacity);
+        mSortedIds = Arrays.copyOf(mSortedIds, newCapacity);
+        mSortedPositions = Arrays.copyOf(mSortedPositions, newCapacity);
+    }
+
+    interface Callback {
+
+        /**
+         * called before the checked state changes
+         *
+         * @param itemId
+         */
+        void onItemReleaseSelected(int itemId);
+
+        /**
+         * checked state of item is changed
+         *
+         * @param position
+         * @param checked
+         */
+        void onItemCheckedChanged(int position, boolean checked);
+
+        /**
+         * called after the checked state changes
+         *
+         * @param itemId
+         */
+        void onItemSelected(int itemId);
+    }
+
+    interface DiffCallback {
+
+        void onItemRemoved(int position);
+
+        void onItemInserted(int position, int itemId);
+
+        void onItemMoved(int fromPosition, int toPosition);
+    }
+}
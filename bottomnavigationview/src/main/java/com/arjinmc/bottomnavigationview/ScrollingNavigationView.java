@@ -0,0 +1,470 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.util.SparseArray;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.widget.OverScroller;
+
+import androidx.core.view.ViewCompat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Horizontally scrollable container of BottomNavigationView in scroll mode.
+ * Only the items in the visible range plus a prefetch margin are materialized as NavigationItemView,
+ * they are bound from the specs and state of the bar, and recycled when they scroll out.
+ * Unmaterialized items only live in the state of the bar, so selection and badges work by id for all of them.
+ */
+class ScrollingNavigationView extends ViewGroup {
+
+    /**
+     * items materialized beyond each edge, so an item is bound before it scrolls in
+     */
+    private static final int PREFETCH_ITEM_COUNT = 1;
+
+    private BottomNavigationView mParentView;
+    /**
+     * specs of all items by position, the same list as the one of bar
+     */
+    private List<ItemSpec> mItemSpecs;
+
+    private int mMinItemWidth;
+    /**
+     * the width of items, at least mMinItemWidth and wide enough to fill the view when there are few items
+     */
+    private int mItemWidth;
+    /**
+     * count of the leading items which are one pixel wider to fill the remainder of the width,
+     * only when the items fit into the view, so they are all materialized then
+     */
+    private int mExtraWidthCount;
+
+    /**
+     * materialized items by position
+     */
+    private SparseArray<NavigationItemView> mActiveItems = new SparseArray<>();
+    private List<NavigationItemView> mScrapItems = new ArrayList<>();
+
+    private OverScroller mScroller;
+    private VelocityTracker mVelocityTracker;
+    private int mTouchSlop;
+    private int mMinFlingVelocity;
+    private int mMaxFlingVelocity;
+    private float mDownX, mLastX;
+    private boolean isDragging;
+    /**
+     * scroll the checked item into view at next layout, e.g. after items are set before the view is laid out
+     */
+    private boolean isScrollToCheckedPending = true;
+
+    private final Runnable mScrollRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mScroller.computeScrollOffset()) {
+                scrollTo(mScroller.getCurrX(), 0);
+                ViewCompat.postOnAnimation(ScrollingNavigationView.this, this);
+            }
+        }
+    };
+
+    ScrollingNavigationView(BottomNavigationView bottomNavigationView, List<ItemSpec> itemSpecs) {
+        super(bottomNavigationView.getContext());
+        mParentView = bottomNavigationView;
+        mItemSpecs = itemSpecs;
+        mScroller = new OverScroller(getContext());
+        ViewConfiguration configuration = ViewConfiguration.get(getContext());
+        mTouchSlop = configuration.getScaledTouchSlop();
+        mMinFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        mMaxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+    }
+
+    /**
+     * set min width of items
+     *
+     * @param minItemWidth
+     */
+    void setMinItemWidth(int minItemWidth) {
+        if (mMinItemWidth == minItemWidth) {
+            return;
+        }
+        mMinItemWidth = minItemWidth;
+        isScrollToCheckedPending = true;
+        requestLayout();
+    }
+
+    /**
+     * call when items are set, added or removed, all materialized items are bound again at next layout
+     */
+    void notifyItemsChanged() {
+        recycleActiveItems();
+        requestLayout();
+    }
+
+    /**
+     * call when the badge or spec of an item is changed, it is bound again if it is materialized
+     *
+     * @param position
+     */
+    void notifyItemChanged(int position) {
+        NavigationItemView navigationItemView = mActiveItems.get(position);
+        if (navigationItemView != null) {
+            bindItem(navigationItemView, position);
+        }
+    }
+
+    /**
+     * update checked state of the item if it is materialized, a newly checked item is scrolled into view
+     *
+     * @param position
+     * @param checked
+     */
+    void onItemCheckedChanged(int position, boolean checked) {
+        NavigationItemView navigationItemView = mActiveItems.get(position);
+        if (navigationItemView != null) {
+            navigationItemView.setCheckedState(checked);
+        }
+        if (checked) {
+            scrollToItem(position, true);
+        }
+    }
+
+    /**
+     * get materialized item
+     *
+     * @param position
+     * @return null if the item is not materialized
+     */
+    NavigationItemView getActiveItem(int position) {
+        return mActiveItems.get(position);
+    }
+
+    /**
+     * call when selection animation is enabled or disabled
+     */
+    void onSelectionAnimationChanged() {
+        for (int i = 0; i < mActiveItems.size(); i++) {
+            mActiveItems.valueAt(i).onSelectionAnimationChanged();
+        }
+        for (NavigationItemView navigationItemView : mScrapItems) {
+            navigationItemView.onSelectionAnimationChanged();
+        }
+    }
+
+    /**
+     * get left of item in this view, the scroll is applied
+     *
+     * @param position
+     * @return
+     */
+    int getItemLeft(int position) {
+        return getItemContentLeft(position) - getScrollX();
+    }
+
+    /**
+     * get width of item, the leading items may be one pixel wider to fill the view
+     *
+     * @param position
+     * @return
+     */
+    int getItemWidth(int position) {
+        return position < mExtraWidthCount ? mItemWidth + 1 : mItemWidth;
+    }
+
+    /**
+     * get left of item in the content without scroll, slots are split like BottomNavigationView.splitWidth()
+     * gives the remainder to the leading items
+     *
+     * @param position
+     * @return
+     */
+    private int getItemContentLeft(int position) {
+        //the wider items are the positions below mExtraWidthCount, count the ones on the left of the item
+        int extraWidth = ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL
+                ? Math.max(0, mExtraWidthCount - position - 1) : Math.min(position, mExtraWidthCount);
+        return toSlot(position) * mItemWidth + extraWidth;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        int height = resolveSize(mParentView.getItemStyle().itemHeight, heightMeasureSpec);
+        setMeasuredDimension(width, height);
+
+        int itemCount = getItemCount();
+        if (itemCount == 0 || width / itemCount < mMinItemWidth) {
+            mItemWidth = mMinItemWidth;
+            mExtraWidthCount = 0;
+        } else {
+            mItemWidth = width / itemCount;
+            mExtraWidthCount = width % itemCount;
+        }
+        for (int i = 0; i < mActiveItems.size(); i++) {
+            measureItem(mActiveItems.valueAt(i), mActiveItems.keyAt(i));
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        for (int i = 0; i < mActiveItems.size(); i++) {
+            layoutItem(mActiveItems.valueAt(i), mActiveItems.keyAt(i));
+        }
+        //keep the scroll in range after the width or items are changed
+        int scrollX = clampScrollX(getScrollX());
+        if (scrollX != getScrollX()) {
+            scrollTo(scrollX, 0);
+        }
+        if (isScrollToCheckedPending && getWidth() > 0) {
+            isScrollToCheckedPending = false;
+            NavigationState navigationState = mParentView.getNavigationState();
+            int checkedPosition = navigationState.indexOf(navigationState.getCheckedItemId());
+            if (checkedPosition != -1) {
+                scrollToItem(checkedPosition, false);
+            }
+        }
+        fillItems();
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        fillItems();
+        mParentView.onItemsScrolled();
+    }
+
+    /**
+     * materialize the items in the visible range plus the prefetch margin and recycle the others.
+     * New items are measured and laid out by themselves, the view is not laid out again.
+     */
+    private void fillItems() {
+        int itemCount = getItemCount();
+        if (itemCount == 0 || getWidth() == 0 || mItemWidth == 0) {
+            recycleActiveItems();
+            return;
+        }
+        int scrollX = getScrollX();
+        int firstSlot = Math.max(0, scrollX / mItemWidth - PREFETCH_ITEM_COUNT);
+        int lastSlot = Math.min(itemCount - 1, (scrollX + getWidth() - 1) / mItemWidth + PREFETCH_ITEM_COUNT);
+        int firstPosition = Math.min(toSlot(firstSlot), toSlot(lastSlot));
+        int lastPosition = Math.max(toSlot(firstSlot), toSlot(lastSlot));
+
+        for (int i = mActiveItems.size() - 1; i >= 0; i--) {
+            int position = mActiveItems.keyAt(i);
+            if (position < firstPosition || position > lastPosition) {
+                recycleItem(mActiveItems.valueAt(i));
+                mActiveItems.removeAt(i);
+            }
+        }
+        for (int position = firstPosition; position <= lastPosition; position++) {
+            if (mActiveItems.get(position) != null) {
+                continue;
+            }
+            NavigationItemView navigationItemView = mScrapItems.isEmpty() ? mParentView.newItem()
+                    : mScrapItems.remove(mScrapItems.size() - 1);
+            //bind before it is attached, so the checked state is applied without animation
+            bindItem(navigationItemView, position);
+            addViewInLayout(navigationItemView, -1, generateDefaultLayoutParams(), true);
+            measureItem(navigationItemView, position);
+            layoutItem(navigationItemView, position);
+            mActiveItems.put(position, navigationItemView);
+        }
+    }
+
+    /**
+     * bind the spec, badge and checked state of position to item
+     *
+     * @param navigationItemView
+     * @param position
+     */
+    private void bindItem(NavigationItemView navigationItemView, int position) {
+        NavigationState navigationState = mParentView.getNavigationState();
+        int itemId = navigationState.getItemId(position);
+        //the badge of state wins over the one of spec, it may be posted after the spec is set
+        ItemSpec itemSpec = mItemSpecs.get(position).copy();
+        int badge = navigationState.getBadge(position);
+        itemSpec.setShowDot(badge == NavigationState.BADGE_DOT);
+        itemSpec.setNumber(badge > 0 ? badge : null);
+
+        navigationItemView.setId(itemId);
+        navigationItemView.setLayoutGravity(mParentView.getCurrentItemGravity());
+        navigationItemView.bindItemSpec(itemSpec);
+        navigationItemView.setCheckedState(itemId == navigationState.getCheckedItemId());
+    }
+
+    private void recycleActiveItems() {
+        for (int i = 0; i < mActiveItems.size(); i++) {
+            recycleItem(mActiveItems.valueAt(i));
+        }
+        mActiveItems.clear();
+    }
+
+    private void recycleItem(NavigationItemView navigationItemView) {
+        removeViewInLayout(navigationItemView);
+        navigationItemView.setPressed(false);
+        mScrapItems.add(navigationItemView);
+    }
+
+    private void measureItem(NavigationItemView navigationItemView, int position) {
+        navigationItemView.measure(MeasureSpec.makeMeasureSpec(getItemWidth(position), MeasureSpec.EXACTLY)
+                , MeasureSpec.makeMeasureSpec(getMeasuredHeight(), MeasureSpec.EXACTLY));
+    }
+
+    private void layoutItem(NavigationItemView navigationItemView, int position) {
+        int left = getItemContentLeft(position);
+        navigationItemView.layout(left, 0, left + getItemWidth(position), getMeasuredHeight());
+    }
+
+    /**
+     * scroll the item fully into view
+     *
+     * @param position
+     * @param smooth
+     */
+    void scrollToItem(int position, boolean smooth) {
+        if (getWidth() == 0 || mItemWidth == 0) {
+            isScrollToCheckedPending = true;
+            return;
+        }
+        int itemLeft = getItemContentLeft(position);
+        int itemRight = itemLeft + getItemWidth(position);
+        int scrollX = getScrollX();
+        int targetScrollX;
+        if (itemLeft < scrollX) {
+            targetScrollX = itemLeft;
+        } else if (itemRight > scrollX + getWidth()) {
+            targetScrollX = itemRight - getWidth();
+        } else {
+            return;
+        }
+        targetScrollX = clampScrollX(targetScrollX);
+        mScroller.abortAnimation();
+        if (!smooth) {
+            scrollTo(targetScrollX, 0);
+            return;
+        }
+        mScroller.startScroll(scrollX, 0, targetScrollX - scrollX, 0, mParentView.getItemStyle().animationDuration);
+        ViewCompat.postOnAnimation(this, mScrollRunnable);
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        trackVelocity(event);
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mDownX = mLastX = event.getX();
+                //catch the fling and keep dragging from where it is
+                isDragging = !mScroller.isFinished();
+                mScroller.abortAnimation();
+                break;
+            case MotionEvent.ACTION_MOVE:
+                startDragIfNeeded(event.getX());
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                endDrag();
+                break;
+            default:
+                break;
+        }
+        return isDragging;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        trackVelocity(event);
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mDownX = mLastX = event.getX();
+                mScroller.abortAnimation();
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                startDragIfNeeded(event.getX());
+                if (isDragging) {
+                    scrollTo(clampScrollX(getScrollX() + (int) (mLastX - event.getX())), 0);
+                    mLastX = event.getX();
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (isDragging) {
+                    mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
+                    int velocity = (int) mVelocityTracker.getXVelocity();
+                    if (Math.abs(velocity) > mMinFlingVelocity) {
+                        mScroller.fling(getScrollX(), 0, -velocity, 0, 0, getMaxScrollX(), 0, 0);
+                        ViewCompat.postOnAnimation(this, mScrollRunnable);
+                    }
+                }
+                endDrag();
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                endDrag();
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private void startDragIfNeeded(float x) {
+        if (isDragging || Math.abs(x - mDownX) <= mTouchSlop || getMaxScrollX() == 0) {
+            return;
+        }
+        isDragging = true;
+        mLastX = x;
+        ViewParent parent = getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(true);
+        }
+    }
+
+    private void trackVelocity(MotionEvent event) {
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+        mVelocityTracker.addMovement(event);
+    }
+
+    private void endDrag() {
+        isDragging = false;
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+    }
+
+    @Override
+    public boolean canScrollHorizontally(int direction) {
+        return direction < 0 ? getScrollX() > 0 : getScrollX() < getMaxScrollX();
+    }
+
+    private int clampScrollX(int scrollX) {
+        return Math.max(0, Math.min(scrollX, getMaxScrollX()));
+    }
+
+    private int getMaxScrollX() {
+        return Math.max(0, getItemCount() * mItemWidth + mExtraWidthCount - getWidth());
+    }
+
+    private int getItemCount() {
+        return mParentView.getNavigationState().getItemCount();
+    }
+
+    /**
+     * the slot of item from left, slots are in reverse order of positions in RTL
+     *
+     * @param position
+     * @return
+     */
+    private int toSlot(int position) {
+        return ViewCompat.getLayoutDirection(this) == ViewCompat.LAYOUT_DIRECTION_RTL
+                ? getItemCount() - 1 - position : position;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        removeCallbacks(mScrollRunnable);
+        mScroller.abortAnimation();
+    }
+}
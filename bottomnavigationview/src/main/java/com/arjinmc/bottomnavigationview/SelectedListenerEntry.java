@@ -0,0 +1,154 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.view.View;
+
+import androidx.core.view.ViewCompat;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A listener added by BottomNavigationView.addOnNavigationItemSelectedListener() with its dispatch policy.
+ * Events of deferred listeners are kept in a reused queue and delivered in order by the entry itself,
+ * so dispatching allocates nothing once the queue is large enough.
+ */
+final class SelectedListenerEntry implements Runnable {
+
+    static final int EVENT_RELEASE_SELECTED = 0;
+    static final int EVENT_SELECTED = 1;
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    final BottomNavigationView.OnNavigationItemSelectedListener listener;
+    private final int mDispatchPolicy;
+    /**
+     * executor of DISPATCH_EXECUTOR, null for other policies
+     */
+    private final Executor mExecutor;
+
+    /**
+     * queued events in a ring, guarded by this
+     */
+    private int[] mEventTypes = new int[DEFAULT_QUEUE_CAPACITY];
+    private int[] mEventItemIds = new int[DEFAULT_QUEUE_CAPACITY];
+    private int mEventHead;
+    private int mEventCount;
+    /**
+     * the entry is posted and delivers queued events until the queue is empty
+     */
+    private boolean isScheduled;
+    /**
+     * queued events of a removed listener are dropped
+     */
+    private volatile boolean isRemoved;
+
+    /**
+     * post to main thread after the frame of the animation callback, so it runs once the frame is drawn
+     */
+    private final Runnable mPostFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            NavigationExecutors.main().post(SelectedListenerEntry.this);
+        }
+    };
+
+    SelectedListenerEntry(BottomNavigationView.OnNavigationItemSelectedListener listener
+            , int dispatchPolicy, Executor executor) {
+        this.listener = listener;
+        mDispatchPolicy = dispatchPolicy;
+        mExecutor = executor;
+    }
+
+    void remove() {
+        isRemoved = true;
+    }
+
+    /**
+     * deliver an event by the policy, call it on main thread
+     *
+     * @param view      the bar whose next frame deferred events wait for
+     * @param eventType EVENT_RELEASE_SELECTED or EVENT_SELECTED
+     * @param itemId
+     */
+    void dispatch(View view, int eventType, int itemId) {
+        if (mDispatchPolicy == BottomNavigationView.DISPATCH_SYNCHRONOUS) {
+            deliver(eventType, itemId);
+            return;
+        }
+        boolean schedule;
+        synchronized (this) {
+            enqueue(eventType, itemId);
+            schedule = !isScheduled;
+            isScheduled = true;
+        }
+        if (!schedule) {
+            return;
+        }
+        if (mDispatchPolicy == BottomNavigationView.DISPATCH_EXECUTOR) {
+            mExecutor.execute(this);
+        } else if (ViewCompat.isAttachedToWindow(view)) {
+            ViewCompat.postOnAnimation(view, mPostFrameRunnable);
+        } else {
+            //no frame is coming for a detached bar
+            NavigationExecutors.main().post(this);
+        }
+    }
+
+    /**
+     * deliver the queued events
+     */
+    @Override
+    public void run() {
+        while (true) {
+            int eventType;
+            int itemId;
+            synchronized (this) {
+                if (mEventCount == 0) {
+                    isScheduled = false;
+                    return;
+                }
+                eventType = mEventTypes[mEventHead];
+                itemId = mEventItemIds[mEventHead];
+                mEventHead = (mEventHead + 1) % mEventTypes.length;
+                mEventCount--;
+            }
+            deliver(eventType, itemId);
+        }
+    }
+
+    private void deliver(int eventType, int itemId) {
+        if (isRemoved) {
+            return;
+        }
+        if (eventType == EVENT_SELECTED) {
+            listener.onItemSelected(itemId);
+        } else {
+            listener.onItemReleaseSelected(itemId);
+        }
+    }
+
+    /**
+     * add event to the end of the ring, it grows only when the events are not delivered in time
+     *
+     * @param eventType
+     * @param itemId
+     */
+    private void enqueue(int eventType, int itemId) {
+        int capacity = mEventTypes.length;
+        if (mEventCount == capacity) {
+            int[] eventTypes = new int[capacity * 2];
+            int[] eventItemIds = new int[capacity * 2];
+            for (int i = 0; i < mEventCount; i++) {
+                eventTypes[i] = mEventTypes[(mEventHead + i) % capacity];
+                eventItemIds[i] = mEventItemIds[(mEventHead + i) % capacity];
+            }
+            mEventTypes = eventTypes;
+            mEventItemIds = eventItemIds;
+            mEventHead = 0;
+            capacity *= 2;
+        }
+        int tail = (mEventHead + mEventCount) % capacity;
+        mEventTypes[tail] = eventType;
+        mEventItemIds[tail] = itemId;
+        mEventCount++;
+    }
+}
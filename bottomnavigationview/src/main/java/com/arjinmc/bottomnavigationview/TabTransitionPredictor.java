@@ -0,0 +1,312 @@
+package com.arjinmc.bottomnavigationview;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+
+import androidx.core.util.AtomicFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Records how often users go from one tab to another and predicts the likely next tabs of the selected one.
+ * Set it to bars by BottomNavigationView.setTabTransitionPredictor(), the same instance can be shared by bars
+ * with the same items. The counts are kept in a small binary file, read and written on a background thread.
+ * The prediction after each selection is delivered when the main thread is idle, so warming up the next tabs
+ * doesn't compete with the frame of the selection.
+ */
+public final class TabTransitionPredictor {
+
+    private static final int FILE_VERSION = 1;
+    private static final int DEFAULT_MAX_PREDICTED_ITEM_COUNT = 2;
+    /**
+     * counts of a tab are halved when one of them reaches it, so recent habits weigh more than old ones
+     */
+    private static final int MAX_TRANSITION_COUNT = 0xFFFF;
+    private static final long SAVE_DELAY_MILLIS = 2000;
+
+    private final AtomicFile mFile;
+    /**
+     * from item id to the counts of to item ids, guarded by itself
+     */
+    private final SparseArray<SparseIntArray> mTransitions = new SparseArray<>();
+
+    private OnNextItemsPredictedListener mOnNextItemsPredictedListener;
+    private int mMaxPredictedItemCount = DEFAULT_MAX_PREDICTED_ITEM_COUNT;
+
+    /**
+     * the selected item the idle handler predicts for
+     */
+    private int mSelectedItemId;
+    private boolean isPredictionScheduled;
+    private boolean isSaveScheduled;
+
+    private final MessageQueue.IdleHandler mPredictIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            isPredictionScheduled = false;
+            OnNextItemsPredictedListener listener = mOnNextItemsPredictedListener;
+            if (listener != null) {
+                listener.onNextItemsPredicted(mSelectedItemId, getPredictedItemIds(mSelectedItemId));
+            }
+            return false;
+        }
+    };
+
+    private final Runnable mSaveRunnable = new Runnable() {
+        @Override
+        public void run() {
+            //transitions from now on schedule the next save, the ones before are in this one
+            isSaveScheduled = false;
+            NavigationExecutors.background().execute(new Runnable() {
+                @Override
+                public void run() {
+                    save();
+                }
+            });
+        }
+    };
+
+    /**
+     * @param file the file of counts, e.g. new File(context.getFilesDir(), "tab_transitions"),
+     *             it is created when the first transition is saved
+     */
+    public TabTransitionPredictor(File file) {
+        mFile = new AtomicFile(file);
+        //saves run on the same thread, so they never overwrite the file before it is read
+        NavigationExecutors.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    /**
+     * set the listener of the likely next tabs after each selection, it is called on main thread when idle
+     *
+     * @param onNextItemsPredictedListener
+     */
+    public void setOnNextItemsPredictedListener(OnNextItemsPredictedListener onNextItemsPredictedListener) {
+        mOnNextItemsPredictedListener = onNextItemsPredictedListener;
+    }
+
+    /**
+     * set max count of predicted items, default is 2
+     *
+     * @param maxPredictedItemCount should be > 0
+     */
+    public void setMaxPredictedItemCount(int maxPredictedItemCount) {
+        if (maxPredictedItemCount <= 0) {
+            return;
+        }
+        mMaxPredictedItemCount = maxPredictedItemCount;
+    }
+
+    /**
+     * get the item ids users most often go to from an item
+     *
+     * @param itemId
+     * @return item ids ranked by count, at most getMaxPredictedItemCount() ones, empty if there is no record
+     */
+    public int[] getPredictedItemIds(int itemId) {
+        int maxCount = mMaxPredictedItemCount;
+        int[] itemIds = new int[maxCount];
+        int[] counts = new int[maxCount];
+        int size = 0;
+        synchronized (mTransitions) {
+            SparseIntArray transitionCounts = mTransitions.get(itemId);
+            int transitionSize = transitionCounts == null ? 0 : transitionCounts.size();
+            for (int i = 0; i < transitionSize; i++) {
+                int count = transitionCounts.valueAt(i);
+                //insert into the ranked arrays, the lowest one falls off when they are full
+                int index = size;
+                while (index > 0 && counts[index - 1] < count) {
+                    index--;
+                }
+                if (index >= maxCount) {
+                    continue;
+                }
+                int moveCount = Math.min(size, maxCount - 1) - index;
+                System.arraycopy(itemIds, index, itemIds, index + 1, moveCount);
+                System.arraycopy(counts, index, counts, index + 1, moveCount);
+                itemIds[index] = transitionCounts.keyAt(i);
+                counts[index] = count;
+                size = Math.min(size + 1, maxCount);
+            }
+        }
+        if (size == maxCount) {
+            return itemIds;
+        }
+        int[] result = new int[size];
+        System.arraycopy(itemIds, 0, result, 0, size);
+        return result;
+    }
+
+    public int getMaxPredictedItemCount() {
+        return mMaxPredictedItemCount;
+    }
+
+    /**
+     * clear all records and the file, call it on main thread
+     */
+    public void clear() {
+        synchronized (mTransitions) {
+            mTransitions.clear();
+        }
+        scheduleSave();
+    }
+
+    /**
+     * record the selection of bar and schedule the prediction, call it on main thread
+     *
+     * @param fromItemId the item selected before
+     * @param toItemId   the item selected now
+     */
+    void onItemSelected(int fromItemId, int toItemId) {
+        if (fromItemId != toItemId) {
+            synchronized (mTransitions) {
+                addCount(fromItemId, toItemId, 1);
+            }
+            scheduleSave();
+        }
+
+        mSelectedItemId = toItemId;
+        if (mOnNextItemsPredictedListener != null && !isPredictionScheduled) {
+            isPredictionScheduled = true;
+            Looper.myQueue().addIdleHandler(mPredictIdleHandler);
+        }
+    }
+
+    /**
+     * add count of a transition, call it with the lock of mTransitions
+     *
+     * @param fromItemId
+     * @param toItemId
+     * @param count
+     */
+    private void addCount(int fromItemId, int toItemId, int count) {
+        SparseIntArray transitionCounts = mTransitions.get(fromItemId);
+        if (transitionCounts == null) {
+            transitionCounts = new SparseIntArray(4);
+            mTransitions.put(fromItemId, transitionCounts);
+        }
+        int newCount = transitionCounts.get(toItemId) + count;
+        transitionCounts.put(toItemId, newCount);
+        if (newCount < MAX_TRANSITION_COUNT) {
+            return;
+        }
+        for (int i = transitionCounts.size() - 1; i >= 0; i--) {
+            int halfCount = transitionCounts.valueAt(i) / 2;
+            if (halfCount == 0) {
+                transitionCounts.removeAt(i);
+            } else {
+                transitionCounts.put(transitionCounts.keyAt(i), halfCount);
+            }
+        }
+    }
+
+    /**
+     * save once for transitions within the delay
+     */
+    private void scheduleSave() {
+        if (isSaveScheduled) {
+            return;
+        }
+        isSaveScheduled = true;
+        NavigationExecutors.main().postDelayed(mSaveRunnable, SAVE_DELAY_MILLIS);
+    }
+
+    /**
+     * read the counts of file and add them to the counts recorded before it is read, on background thread
+     */
+    private void load() {
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(mFile.openRead());
+            if (inputStream.readInt() != FILE_VERSION) {
+                return;
+            }
+            int fromSize = inputStream.readInt();
+            synchronized (mTransitions) {
+                for (int i = 0; i < fromSize; i++) {
+                    int fromItemId = inputStream.readInt();
+                    int toSize = inputStream.readInt();
+                    for (int j = 0; j < toSize; j++) {
+                        int toItemId = inputStream.readInt();
+                        addCount(fromItemId, toItemId, inputStream.readInt());
+                    }
+                }
+            }
+        } catch (FileNotFoundException e) {
+            //nothing recorded yet
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * write all counts to file, on background thread
+     */
+    private void save() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream outputStream = new DataOutputStream(bytes);
+        try {
+            outputStream.writeInt(FILE_VERSION);
+            synchronized (mTransitions) {
+                int fromSize = mTransitions.size();
+                outputStream.writeInt(fromSize);
+                for (int i = 0; i < fromSize; i++) {
+                    SparseIntArray transitionCounts = mTransitions.valueAt(i);
+                    outputStream.writeInt(mTransitions.keyAt(i));
+                    outputStream.writeInt(transitionCounts.size());
+                    for (int j = 0; j < transitionCounts.size(); j++) {
+                        outputStream.writeInt(transitionCounts.keyAt(j));
+                        outputStream.writeInt(transitionCounts.valueAt(j));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        FileOutputStream fileOutputStream = null;
+        try {
+            fileOutputStream = mFile.startWrite();
+            bytes.writeTo(fileOutputStream);
+            mFile.finishWrite(fileOutputStream);
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (fileOutputStream != null) {
+                mFile.failWrite(fileOutputStream);
+            }
+        }
+    }
+
+    public interface OnNextItemsPredictedListener {
+
+        /**
+         * called on main thread when idle after an item is selected, warm up the content of likely next tabs here
+         *
+         * @param itemId      the selected item
+         * @param nextItemIds the item ids most often selected after it, ranked by count, may be empty
+         */
+        void onNextItemsPredicted(int itemId, int[] nextItemIds);
+    }
+}
@@ -0,0 +1,56 @@
+package com.arjinmc.bottomnavigationview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class BadgeTextCacheTest {
+
+    private static final int MAX_NUMBER = Integer.MAX_VALUE;
+
+    @Test
+    public void formatsNumbers() {
+        assertEquals("1", BadgeTextCache.format(1, MAX_NUMBER, false));
+        assertEquals("999", BadgeTextCache.format(999, MAX_NUMBER, false));
+        assertEquals("1000", BadgeTextCache.format(1000, MAX_NUMBER, false));
+        assertEquals("123456", BadgeTextCache.format(123456, MAX_NUMBER, false));
+    }
+
+    @Test
+    public void formatsCompactNumbers() {
+        assertEquals("999", BadgeTextCache.format(999, MAX_NUMBER, true));
+        assertEquals("1k", BadgeTextCache.format(1000, MAX_NUMBER, true));
+        assertEquals("1.2k", BadgeTextCache.format(1299, MAX_NUMBER, true));
+        assertEquals("12k", BadgeTextCache.format(12999, MAX_NUMBER, true));
+        assertEquals("999k", BadgeTextCache.format(999999, MAX_NUMBER, true));
+        assertEquals("1m", BadgeTextCache.format(1000000, MAX_NUMBER, true));
+        assertEquals("1.5m", BadgeTextCache.format(1500000, MAX_NUMBER, true));
+        assertEquals("25m", BadgeTextCache.format(25000000, MAX_NUMBER, true));
+    }
+
+    @Test
+    public void formatsMaxNumbers() {
+        assertEquals("99", BadgeTextCache.format(99, 99, false));
+        assertEquals("99+", BadgeTextCache.format(100, 99, false));
+        assertEquals("9999+", BadgeTextCache.format(10000, 9999, false));
+        assertEquals("9.9k+", BadgeTextCache.format(10000, 9999, true));
+    }
+
+    @Test
+    public void clampsMaxNumberToOne() {
+        assertEquals("1", BadgeTextCache.format(1, 0, false));
+        assertEquals("1+", BadgeTextCache.format(5, 0, false));
+        assertEquals("1+", BadgeTextCache.format(5, -1, false));
+        assertEquals("1+", BadgeTextCache.format(5, Integer.MIN_VALUE, true));
+    }
+
+    @Test
+    public void reusesStrings() {
+        assertSame(BadgeTextCache.format(42, MAX_NUMBER, false), BadgeTextCache.format(42, MAX_NUMBER, false));
+        assertSame(BadgeTextCache.format(123456, MAX_NUMBER, false), BadgeTextCache.format(123456, MAX_NUMBER, false));
+        assertSame(BadgeTextCache.format(100, 99, false), BadgeTextCache.format(200, 99, false));
+        //numbers shown as the same compact text share one string
+        assertSame(BadgeTextCache.format(1210, MAX_NUMBER, true), BadgeTextCache.format(1290, MAX_NUMBER, true));
+    }
+}
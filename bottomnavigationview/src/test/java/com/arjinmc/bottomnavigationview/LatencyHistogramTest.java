@@ -0,0 +1,62 @@
+package com.arjinmc.bottomnavigationview;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void recordsIntoBucketsByInclusiveUpperBound() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        latencyHistogram.record(0);
+        latencyHistogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        latencyHistogram.record(TimeUnit.MILLISECONDS.toNanos(1) + 1);
+        latencyHistogram.record(TimeUnit.MILLISECONDS.toNanos(16));
+        latencyHistogram.record(TimeUnit.SECONDS.toNanos(5));
+
+        assertEquals(2, latencyHistogram.getCount(0));
+        assertEquals(1, latencyHistogram.getCount(1));
+        assertEquals(1, latencyHistogram.getCount(bucketOf(TimeUnit.MILLISECONDS.toNanos(16))));
+        assertEquals(1, latencyHistogram.getCount(LatencyHistogram.getBucketCount() - 1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(18) + 1 + TimeUnit.SECONDS.toNanos(5)
+                , latencyHistogram.getTotalNanos());
+    }
+
+    @Test
+    public void lastBucketHasNoUpperBound() {
+        assertEquals(Long.MAX_VALUE
+                , LatencyHistogram.getBucketUpperBoundNanos(LatencyHistogram.getBucketCount() - 1));
+        for (int i = 1; i < LatencyHistogram.getBucketCount(); i++) {
+            assertEquals(true, LatencyHistogram.getBucketUpperBoundNanos(i)
+                    > LatencyHistogram.getBucketUpperBoundNanos(i - 1));
+        }
+    }
+
+    @Test
+    public void drainToResetsCounts() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        latencyHistogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        latencyHistogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+
+        long[] counts = new long[LatencyHistogram.getBucketCount()];
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(6), latencyHistogram.drainTo(counts));
+        assertEquals(2, counts[bucketOf(TimeUnit.MILLISECONDS.toNanos(3))]);
+
+        assertEquals(0, latencyHistogram.drainTo(counts));
+        for (long count : counts) {
+            assertEquals(0, count);
+        }
+        assertEquals(0, latencyHistogram.getTotalNanos());
+    }
+
+    private static int bucketOf(long latencyNanos) {
+        int bucket = 0;
+        while (latencyNanos > LatencyHistogram.getBucketUpperBoundNanos(bucket)) {
+            bucket++;
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,334 @@
+package com.arjinmc.bottomnavigationview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * NavigationState on JVM, the diff callbacks are replayed on a list like BottomNavigationView does with its views.
+ */
+public class NavigationStateTest {
+
+    private RecordingCallback mCallback;
+    private NavigationState mNavigationState;
+    private ReplayingDiffCallback mDiffCallback;
+
+    @Before
+    public void setUp() {
+        mCallback = new RecordingCallback();
+        mNavigationState = new NavigationState(mCallback);
+        mDiffCallback = new ReplayingDiffCallback();
+    }
+
+    @Test
+    public void addItemChecksFirstItem() {
+        assertEquals(0, mNavigationState.addItem(1, NavigationState.BADGE_NONE));
+        assertEquals(1, mNavigationState.addItem(2, NavigationState.BADGE_NONE));
+
+        assertEquals(1, mNavigationState.getCheckedItemId());
+        assertEquals(Collections.singletonList("checked 0 true"), mCallback.mEvents);
+        assertEquals(1, mNavigationState.indexOf(2));
+        assertEquals(-1, mNavigationState.indexOf(3));
+    }
+
+    @Test
+    public void addItemRejectsDuplicateIds() {
+        //items without id are all View.NO_ID
+        mNavigationState.addItem(-1, NavigationState.BADGE_NONE);
+        try {
+            mNavigationState.addItem(-1, 3);
+            fail("duplicate ids should be rejected");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+
+        assertItemIds(-1);
+        assertEquals(0, mNavigationState.indexOf(-1));
+        mNavigationState.removeItemAt(0);
+        assertEquals(0, mNavigationState.getItemCount());
+        assertEquals(-1, mNavigationState.indexOf(-1));
+    }
+
+    @Test
+    public void selectCallsReleaseBeforeCheckedChanges() {
+        setItems(1, 2, 3);
+        mCallback.mEvents.clear();
+
+        assertTrue(mNavigationState.select(3));
+        assertEquals(Arrays.asList("release 1", "checked 0 false", "checked 2 true", "selected 3")
+                , mCallback.mEvents);
+        assertFalse(mNavigationState.select(3));
+    }
+
+    @Test
+    public void checkHasNoSelectedCallbacks() {
+        setItems(1, 2, 3);
+        mCallback.mEvents.clear();
+
+        assertTrue(mNavigationState.check(2));
+        assertEquals(Arrays.asList("checked 0 false", "checked 1 true"), mCallback.mEvents);
+        assertFalse(mNavigationState.check(4));
+        assertEquals(2, mNavigationState.getCheckedItemId());
+    }
+
+    @Test
+    public void removeItemAtKeepsIndex() {
+        setItems(1, 2, 3, 4);
+        mNavigationState.removeItemAt(1);
+
+        assertItemIds(1, 3, 4);
+        assertEquals(-1, mNavigationState.indexOf(2));
+        assertEquals(1, mNavigationState.indexOf(3));
+        assertEquals(2, mNavigationState.indexOf(4));
+    }
+
+    @Test
+    public void setItemIdsInsertsRemovesAndMoves() {
+        setItems(1, 2, 3, 4, 5);
+
+        //insert in the middle
+        assertDiff(1, 2, 6, 3, 4, 5);
+        //remove from both ends
+        assertDiff(2, 6, 3, 4);
+        //move the last item to the first position
+        assertDiff(4, 2, 6, 3);
+        //reverse
+        assertDiff(3, 6, 2, 4);
+        //remove, insert and move at once
+        assertDiff(7, 4, 3, 8);
+        //clear
+        assertDiff();
+        //add to empty
+        assertDiff(9, 10);
+    }
+
+    @Test
+    public void setItemIdsWithoutChangesReportsNothing() {
+        setItems(1, 2, 3);
+        mDiffCallback.reset(mNavigationState);
+
+        assertFalse(mNavigationState.setItemIds(new int[]{1, 2, 3, 99}, 3, mDiffCallback));
+        assertTrue(mDiffCallback.mEvents.isEmpty());
+    }
+
+    @Test
+    public void setItemIdsRandomSequences() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            //a random subset of 0..19 in a random order
+            List<Integer> ids = new ArrayList<>();
+            for (int id = 0; id < 20; id++) {
+                if (random.nextInt(3) != 0) {
+                    ids.add(id);
+                }
+            }
+            Collections.shuffle(ids, random);
+            int[] itemIds = new int[ids.size()];
+            for (int i = 0; i < itemIds.length; i++) {
+                itemIds[i] = ids.get(i);
+            }
+            assertDiff(itemIds);
+        }
+    }
+
+    @Test
+    public void badgesFollowMoves() {
+        setItems(1, 2, 3, 4);
+        mNavigationState.setBadge(mNavigationState.indexOf(1), 5);
+        mNavigationState.setBadge(mNavigationState.indexOf(3), NavigationState.BADGE_DOT);
+
+        assertDiff(3, 5, 1, 2);
+
+        assertEquals(NavigationState.BADGE_DOT, mNavigationState.getBadge(mNavigationState.indexOf(3)));
+        assertEquals(5, mNavigationState.getBadge(mNavigationState.indexOf(1)));
+        assertEquals(NavigationState.BADGE_NONE, mNavigationState.getBadge(mNavigationState.indexOf(2)));
+        //inserted items have no badge
+        assertEquals(NavigationState.BADGE_NONE, mNavigationState.getBadge(mNavigationState.indexOf(5)));
+    }
+
+    @Test
+    public void setBadgeReportsChanges() {
+        setItems(1);
+        assertTrue(mNavigationState.setBadge(0, 3));
+        assertFalse(mNavigationState.setBadge(0, 3));
+        assertEquals(3, mNavigationState.getBadge(0));
+    }
+
+    @Test
+    public void checkedItemIsKeptWhileItExists() {
+        setItems(1, 2, 3);
+        mNavigationState.select(2);
+        mCallback.mEvents.clear();
+
+        assertDiff(3, 2, 1);
+        mNavigationState.ensureChecked();
+        assertEquals(2, mNavigationState.getCheckedItemId());
+        assertTrue(mCallback.mEvents.isEmpty());
+
+        //the removed checked item is kept until ensureChecked() checks the first one
+        assertDiff(3, 1);
+        assertEquals(2, mNavigationState.getCheckedItemId());
+        mNavigationState.ensureChecked();
+        assertEquals(3, mNavigationState.getCheckedItemId());
+        assertEquals(Collections.singletonList("checked 0 true"), mCallback.mEvents);
+    }
+
+    @Test
+    public void duplicateIdsAreRejectedBeforeAnyChange() {
+        setItems(1, 2, 3);
+        mNavigationState.setBadge(1, 4);
+        mDiffCallback.reset(mNavigationState);
+
+        try {
+            mNavigationState.setItemIds(new int[]{4, 2, 4}, 3, mDiffCallback);
+            fail("duplicate ids should be rejected");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+
+        assertTrue(mDiffCallback.mEvents.isEmpty());
+        assertItemIds(1, 2, 3);
+        assertEquals(4, mNavigationState.getBadge(1));
+        assertEquals(2, mNavigationState.indexOf(3));
+    }
+
+    @Test
+    public void setItemIdsAfterAddItem() {
+        for (int itemId : new int[]{-1, 1, 2, 3}) {
+            mNavigationState.addItem(itemId, NavigationState.BADGE_NONE);
+        }
+        try {
+            mNavigationState.addItem(2, NavigationState.BADGE_NONE);
+            fail("duplicate ids should be rejected");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+
+        assertDiff(3, -1, 4, 2);
+        assertDiff(2, 3, -1);
+    }
+
+    private void setItems(int... itemIds) {
+        mDiffCallback.reset(mNavigationState);
+        mNavigationState.setItemIds(itemIds, itemIds.length, mDiffCallback);
+        mNavigationState.ensureChecked();
+    }
+
+    /**
+     * set item ids and check the replayed changes, their order and the index
+     *
+     * @param itemIds
+     */
+    private void assertDiff(int... itemIds) {
+        mDiffCallback.reset(mNavigationState);
+        mNavigationState.setItemIds(itemIds, itemIds.length, mDiffCallback);
+
+        List<Integer> expectedIds = new ArrayList<>();
+        for (int itemId : itemIds) {
+            expectedIds.add(itemId);
+        }
+        assertEquals(expectedIds, mDiffCallback.mItemIds);
+        assertItemIds(itemIds);
+        for (int i = 0; i < itemIds.length; i++) {
+            assertEquals(i, mNavigationState.indexOf(itemIds[i]));
+        }
+
+        //removes from the last position, then inserts and moves from the first position
+        boolean hasRemoves = true;
+        int lastPosition = Integer.MAX_VALUE;
+        for (int[] event : mDiffCallback.mEvents) {
+            if (event[0] == ReplayingDiffCallback.REMOVED) {
+                assertTrue("removes should come first", hasRemoves);
+                assertTrue("removes should go from the last position", event[1] < lastPosition);
+                lastPosition = event[1];
+            } else {
+                if (hasRemoves) {
+                    hasRemoves = false;
+                    lastPosition = -1;
+                }
+                assertTrue("inserts and moves should go from the first position", event[1] > lastPosition);
+                lastPosition = event[1];
+            }
+        }
+    }
+
+    private void assertItemIds(int... itemIds) {
+        assertEquals(itemIds.length, mNavigationState.getItemCount());
+        for (int i = 0; i < itemIds.length; i++) {
+            assertEquals(itemIds[i], mNavigationState.getItemId(i));
+        }
+    }
+
+    private static class RecordingCallback implements NavigationState.Callback {
+
+        private final List<String> mEvents = new ArrayList<>();
+
+        @Override
+        public void onItemReleaseSelected(int itemId) {
+            mEvents.add("release " + itemId);
+        }
+
+        @Override
+        public void onItemCheckedChanged(int position, boolean checked) {
+            mEvents.add("checked " + position + " " + checked);
+        }
+
+        @Override
+        public void onItemSelected(int itemId) {
+            mEvents.add("selected " + itemId);
+        }
+    }
+
+    /**
+     * applies each change to a copy of the items in the order they are reported
+     */
+    private static class ReplayingDiffCallback implements NavigationState.DiffCallback {
+
+        private static final int REMOVED = 0;
+        private static final int INSERTED = 1;
+        private static final int MOVED = 2;
+
+        private final List<Integer> mItemIds = new ArrayList<>();
+        /**
+         * type and the position the item ends up at
+         */
+        private final List<int[]> mEvents = new ArrayList<>();
+
+        void reset(NavigationState navigationState) {
+            mItemIds.clear();
+            for (int i = 0; i < navigationState.getItemCount(); i++) {
+                mItemIds.add(navigationState.getItemId(i));
+            }
+            mEvents.clear();
+        }
+
+        @Override
+        public void onItemRemoved(int position) {
+            mItemIds.remove(position);
+            mEvents.add(new int[]{REMOVED, position});
+        }
+
+        @Override
+        public void onItemInserted(int position, int itemId) {
+            mItemIds.add(position, itemId);
+            mEvents.add(new int[]{INSERTED, position});
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition) {
+            assertTrue("items are moved to a lower position", toPosition < fromPosition);
+            mItemIds.add(toPosition, mItemIds.remove(fromPosition));
+            mEvents.add(new int[]{MOVED, toPosition});
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.arjinmc.bottomnavigationview.gradle
+
+import org.gradle.api.GradleException
+
+/**
+ * Generate class NavigationMenus from menu resources.
+ * Each res/menu/xxx_yyy.xml becomes three members:
+ * XXX_YYY_ITEM_COUNT, setupXxxYyyItem(NavigationItemView, int) and inflateXxxYyy(BottomNavigationView).
+ * Items in groups are added in the order of the menu like the ones outside groups.
+ * Supported item attributes: android:id, android:title, android:icon, android:checked,
+ * app:BottomNavigationView_itemNumber and app:BottomNavigationView_itemShowDot,
+ * values of resource references, e.g. "@integer/x" or "@bool/x", are read at runtime.
+ */
+class NavigationMenuGenerator {
+
+    private static final String ANDROID_NAMESPACE = 'http://schemas.android.com/apk/res/android'
+    private static final String APP_NAMESPACE = 'http://schemas.android.com/apk/res-auto'
+
+    /**
+     * generate the source of NavigationMenus
+     *
+     * @param packageName
+     * @param menuFiles
+     * @return
+     */
+    static String generate(String packageName, Collection<File> menuFiles) {
+        def code = new StringBuilder()
+        code << "package ${packageName};\n\n"
+        code << "import com.arjinmc.bottomnavigationview.BottomNavigationView;\n"
+        code << "import com.arjinmc.bottomnavigationview.NavigationItemView;\n\n"
+        code << "/**\n * Items of menu resources generated by the navigation-menu plugin, do not edit.\n */\n"
+        code << "public final class NavigationMenus {\n\n"
+        code << "    private NavigationMenus() {\n    }\n"
+        menuFiles.each { generateMenuCode(it, code) }
+        code << "}\n"
+        return code.toString()
+    }
+
+    private static void generateMenuCode(File menuFile, StringBuilder code) {
+        def menu = new XmlParser(false, false).parse(menuFile)
+        //attributes are read by the prefixes declared in the menu, keys of attributes are plain strings
+        def androidPrefix = 'android'
+        def appPrefix = 'app'
+        menu.attributes().each { key, value ->
+            if (key.startsWith('xmlns:')) {
+                if (value == ANDROID_NAMESPACE) {
+                    androidPrefix = key.substring(6)
+                } else if (value == APP_NAMESPACE) {
+                    appPrefix = key.substring(6)
+                }
+            }
+        }
+
+        def menuName = menuFile.name.take(menuFile.name.lastIndexOf('.'))
+        def camelName = toCamelName(menuName)
+        //not by the locale of build machine, e.g. "i" is upper cased to a dotted "İ" in Turkish
+        def constantName = menuName.toUpperCase(Locale.ROOT)
+        def items = []
+        collectItems(menu, items)
+
+        code << "\n    /**\n     * item count of res/menu/${menuFile.name}\n     */\n"
+        code << "    public static final int ${constantName}_ITEM_COUNT = ${items.size()};\n"
+
+        code << "\n    /**\n     * set up item of res/menu/${menuFile.name} by position, it can run on a background thread\n"
+        code << "     * like BottomNavigationView.prepareItems()\n     *\n"
+        code << "     * @param navigationItemView\n     * @param position\n     */\n"
+        code << "    public static void setup${camelName}Item(NavigationItemView navigationItemView, int position) {\n"
+        code << "        switch (position) {\n"
+        items.eachWithIndex { item, position ->
+            code << "            case ${position}:\n"
+            def id = item.attribute(androidPrefix + ':id')
+            if (id) {
+                code << "                navigationItemView.setId(${toRequiredResourceReference(menuFile, 'android:id', id)});\n"
+            }
+            def title = item.attribute(androidPrefix + ':title')
+            if (title != null) {
+                def titleReference = toResourceReference(title)
+                code << "                navigationItemView.setText(${titleReference ?: toJavaString(title)});\n"
+            }
+            def icon = item.attribute(androidPrefix + ':icon')
+            if (icon) {
+                code << "                navigationItemView.setIconDrawable(${toRequiredResourceReference(menuFile, 'android:icon', icon)});\n"
+            }
+            def number = item.attribute(appPrefix + ':BottomNavigationView_itemNumber')
+            if (number) {
+                def numberReference = toResourceReference(number)
+                def numberValue = numberReference == null ? toInteger(menuFile, 'BottomNavigationView_itemNumber', number)
+                        : "navigationItemView.getResources().getInteger(${numberReference})"
+                code << "                navigationItemView.setNumber(${numberValue});\n"
+            }
+            def showDot = item.attribute(appPrefix + ':BottomNavigationView_itemShowDot')
+            def showDotReference = showDot ? toResourceReference(showDot) : null
+            if (showDotReference != null) {
+                code << "                navigationItemView.setShowDot(navigationItemView.getResources().getBoolean(${showDotReference}));\n"
+            } else if (showDot == 'true') {
+                code << "                navigationItemView.setShowDot(true);\n"
+            }
+            code << "                break;\n"
+        }
+        code << "            default:\n                break;\n        }\n    }\n"
+
+        code << "\n    /**\n     * add items of res/menu/${menuFile.name} to the bar\n     *\n"
+        code << "     * @param bottomNavigationView\n     */\n"
+        code << "    public static void inflate${camelName}(BottomNavigationView bottomNavigationView) {\n"
+        if (items.isEmpty()) {
+            code << "    }\n"
+            return
+        }
+        code << "        for (int i = 0; i < ${constantName}_ITEM_COUNT; i++) {\n"
+        code << "            NavigationItemView navigationItemView = bottomNavigationView.newItem();\n"
+        code << "            setup${camelName}Item(navigationItemView, i);\n"
+        code << "            bottomNavigationView.addItem(navigationItemView);\n"
+        code << "        }\n"
+        generateCheckedCode(items, androidPrefix, code)
+        code << "    }\n"
+    }
+
+    /**
+     * select the first checked item, items checked by "@bool/x" are checked at runtime in order
+     */
+    private static void generateCheckedCode(List<Node> items, String androidPrefix, StringBuilder code) {
+        boolean hasCondition = false
+        for (Node item : items) {
+            def id = item.attribute(androidPrefix + ':id')
+            def checked = item.attribute(androidPrefix + ':checked')
+            if (!id || !checked) {
+                continue
+            }
+            def checkedReference = toResourceReference(checked)
+            def select = "bottomNavigationView.dispatchItemSelected(${toResourceReference(id)});\n"
+            if (checkedReference != null) {
+                code << (hasCondition ? " else if (" : "        if (")
+                code << "bottomNavigationView.getResources().getBoolean(${checkedReference})) {\n"
+                code << "            ${select}        }"
+                hasCondition = true
+            } else if (checked == 'true') {
+                if (hasCondition) {
+                    code << " else {\n            ${select}        }\n"
+                } else {
+                    code << "        ${select}"
+                }
+                return
+            }
+        }
+        if (hasCondition) {
+            code << "\n"
+        }
+    }
+
+    /**
+     * add items of the menu and its groups in order, items of sub menus are not bar items
+     */
+    private static void collectItems(Node parent, List<Node> items) {
+        parent.children().each { child ->
+            if (child instanceof Node) {
+                if (child.name() == 'item') {
+                    items.add(child)
+                } else if (child.name() == 'group') {
+                    collectItems(child, items)
+                }
+            }
+        }
+    }
+
+    /**
+     * "@+id/tab_1" to "R.id.tab_1", "@android:drawable/x" to "android.R.drawable.x", null for values
+     */
+    private static String toResourceReference(String value) {
+        def matcher = value =~ /^@\+?(?:([\w.]+):)?(\w+)\/(\w+)$/
+        if (!matcher.matches()) {
+            return null
+        }
+        def resPackage = matcher.group(1)
+        def prefix = resPackage == 'android' ? 'android.R' : (resPackage ? resPackage + '.R' : 'R')
+        return "${prefix}.${matcher.group(2)}.${matcher.group(3)}"
+    }
+
+    /**
+     * reference of an attribute which must be a resource
+     */
+    private static String toRequiredResourceReference(File menuFile, String attribute, String value) {
+        def reference = toResourceReference(value)
+        if (reference == null) {
+            throw new GradleException("${menuFile.name}: ${attribute}=\"${value}\" should be a resource reference")
+        }
+        return reference
+    }
+
+    private static int toInteger(File menuFile, String attribute, String value) {
+        try {
+            return Integer.parseInt(value)
+        } catch (NumberFormatException e) {
+            throw new GradleException("${menuFile.name}: ${attribute}=\"${value}\" should be an integer or a resource reference", e)
+        }
+    }
+
+    private static String toJavaString(String value) {
+        return '"' + value.replace('\\', '\\\\').replace('"', '\\"').replace('\n', '\\n') + '"'
+    }
+
+    /**
+     * "bottom_navigation" to "BottomNavigation"
+     */
+    private static String toCamelName(String name) {
+        return name.split('_').findAll { it }.collect { it.capitalize() }.join('')
+    }
+}
@@ -0,0 +1,62 @@
+package com.arjinmc.bottomnavigationview.gradle
+
+import org.gradle.api.Plugin
+import org.gradle.api.Project
+
+/**
+ * Generate the construction code of BottomNavigationView items from menu resources at build time,
+ * so items declared in xml are built by direct setter calls without parsing xml at runtime.
+ * Apply it by id "com.arjinmc.navigation-menu" to an application or library module,
+ * class NavigationMenus is generated in the package of the module for each variant.
+ */
+class NavigationMenuPlugin implements Plugin<Project> {
+
+    @Override
+    void apply(Project project) {
+        //the android block is only available after the android plugin, whichever order they are applied in
+        project.plugins.withId('com.android.application') {
+            registerTasks(project, project.android.applicationVariants)
+        }
+        project.plugins.withId('com.android.library') {
+            registerTasks(project, project.android.libraryVariants)
+        }
+    }
+
+    private static void registerTasks(Project project, variants) {
+        variants.all { variant ->
+            def outputDir = new File(project.buildDir, "generated/source/navigationMenu/${variant.dirName}")
+            //menus of later source sets override the ones with the same name, like resource merging
+            def menuFiles = {
+                def menuFileMap = new LinkedHashMap<String, File>()
+                variant.sourceSets.each { sourceProvider ->
+                    sourceProvider.resDirectories.each { resDir ->
+                        def menuDir = new File(resDir, 'menu')
+                        if (menuDir.isDirectory()) {
+                            menuDir.listFiles().findAll { it.name.endsWith('.xml') }.sort { it.name }.each {
+                                menuFileMap.put(it.name, it)
+                            }
+                        }
+                    }
+                }
+                return menuFileMap.values()
+            }
+            def manifestFile = project.file('src/main/AndroidManifest.xml')
+
+            def generateTask = project.task("generate${variant.name.capitalize()}NavigationMenus") {
+                inputs.files(menuFiles)
+                inputs.file(manifestFile)
+                outputs.dir(outputDir)
+                doLast {
+                    def packageName = new XmlParser(false, false).parse(manifestFile).attribute('package')
+                    def code = NavigationMenuGenerator.generate(packageName, menuFiles())
+
+                    def packageDir = new File(outputDir, packageName.replace('.', '/'))
+                    project.delete(outputDir)
+                    packageDir.mkdirs()
+                    new File(packageDir, 'NavigationMenus.java').setText(code, 'UTF-8')
+                }
+            }
+            variant.registerJavaGeneratingTask(generateTask, outputDir)
+        }
+    }
+}